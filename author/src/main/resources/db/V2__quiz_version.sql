@@ -0,0 +1,2 @@
+alter table quiz add column version bigint not null default 0;
+create index quiz_version on quiz(version);
@@ -0,0 +1,3 @@
+create index quiz_title on quiz(title, id);
+create index quiz_status on quiz(status, id);
+create index member_person on member(person_id, id);
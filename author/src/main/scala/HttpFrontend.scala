@@ -6,10 +6,14 @@ import akka.cluster.sharding.typed.scaladsl.EntityRef
 import akka.http.scaladsl.common.EntityStreamingSupport
 import akka.http.scaladsl.common.JsonEntityStreamingSupport
 import akka.http.scaladsl.marshallers.sprayjson.SprayJsonSupport
+import akka.http.scaladsl.marshalling.Marshaller
+import akka.http.scaladsl.marshalling.ToEntityMarshaller
 import akka.http.scaladsl.model.*
 import akka.http.scaladsl.server.Directives.*
 import akka.http.scaladsl.server.RequestContext
 import akka.http.scaladsl.server.Route
+import akka.http.scaladsl.unmarshalling.FromEntityUnmarshaller
+import akka.http.scaladsl.unmarshalling.Unmarshaller
 import akka.stream.scaladsl.Source
 import akka.util.ByteString
 import spray.json.*
@@ -33,6 +37,15 @@ case class CreateSection(title: String)
 case class UpdateQuiz(title: String, intro: String, recommendedLength: Int)
 case class UpdateSection(title: String, intro: String)
 case class StrList(list: List[String])
+case class BatchCommand(
+    op: String,
+    quiz: Option[QuizID],
+    sc: Option[SC],
+    item: Option[SC],
+    person: Option[PersonID],
+    up: Option[Boolean]
+)
+case class BatchResult(status: Int, body: Option[JsValue])
 
 trait JsonFormats extends SprayJsonSupport, DefaultJsonProtocol:
   given RootJsonFormat[Person] = jsonFormat2(Person.apply)
@@ -62,9 +75,22 @@ trait JsonFormats extends SprayJsonSupport, DefaultJsonProtocol:
   given RootJsonFormat[Error] = jsonFormat2(Error.apply)
   given RootJsonFormat[Quiz.CreateDetails] = jsonFormat2(Quiz.CreateDetails.apply)
   given RootJsonFormat[StrList] = jsonFormat1(StrList.apply)
+  given RootJsonFormat[BatchCommand] = jsonFormat6(BatchCommand.apply)
+  given RootJsonFormat[BatchResult] = jsonFormat2(BatchResult.apply)
+  given RootJsonFormat[QuizPush] = jsonFormat5(QuizPush.apply)
+  given RootJsonFormat[QuizPage] = jsonFormat2(QuizPage.apply)
 
   given JsonEntityStreamingSupport = EntityStreamingSupport.json()
 
+  // every body also goes as CBOR or Smile when the client asks for it, json stays the default
+  override implicit def sprayJsValueMarshaller(implicit
+      printer: JsonPrinter
+  ): ToEntityMarshaller[JsValue] =
+    Marshaller.oneOf((super.sprayJsValueMarshaller(printer) +: WireFormat.marshallers)*)
+
+  override implicit def sprayJsValueUnmarshaller: FromEntityUnmarshaller[JsValue] =
+    Unmarshaller.firstOf(super.sprayJsValueUnmarshaller, WireFormat.unmarshaller)
+
 trait EntityAware:
   def quiz(id: String): EntityRef[Quiz.Command]
   def section(id: String): EntityRef[SectionEdit.Command]
@@ -84,7 +110,8 @@ object HttpFrontend extends JsonFormats:
       entities: EntityAware,
       authService: Auth,
       host: String = "localhost",
-      port: Int = 9099
+      port: Int = 9099,
+      events: Source[Addressed, ?] = Source.never
   )(using ActorSystem[?], ExecutionContext) =
 
     def auth(request: HttpRequest)(next: Person => Route) =
@@ -121,6 +148,64 @@ object HttpFrontend extends JsonFormats:
 
     given akka.util.Timeout = 2.seconds
 
+    val idempotent = Idempotency(10000)
+
+    // tells a client that it missed events, it fetches what it shows again
+    val resync = sse.ServerSentEvent(JsObject("event" -> JsString("resync")).compactPrint, "resync")
+
+    def withPerson(id: PersonID)(cmd: Person => Future[Resp[?]]) =
+      authService.getPerson(id).flatMap {
+        case Some(p) => cmd(p)
+        case None => Future.successful(Resp.Bad(Quiz.personNotFound.error() + id))
+      }
+
+    def batchCall(person: Person, bc: BatchCommand): Future[Resp[?]] =
+      bc match
+        case BatchCommand("moveItem", _, Some(sc), Some(itemID), _, Some(up)) =>
+          entities.section(sc).ask[Resp[?]](SectionEdit.MoveItem(person, itemID, up, _))
+        case BatchCommand("moveSection", Some(quizID), Some(sc), _, _, Some(up)) =>
+          entities.quiz(quizID).ask[Resp[?]](Quiz.MoveSection(sc, up, person, _))
+        case BatchCommand("addAuthor", Some(quizID), _, _, Some(id), _) =>
+          withPerson(id)(a => entities.quiz(quizID).ask[Resp[?]](Quiz.AddAuthor(person, a, _)))
+        case BatchCommand("removeAuthor", Some(quizID), _, _, Some(id), _) =>
+          withPerson(id)(a => entities.quiz(quizID).ask[Resp[?]](Quiz.RemoveAuthor(person, a, _)))
+        case BatchCommand("addInspector", Some(quizID), _, _, Some(id), _) =>
+          withPerson(id)(i => entities.quiz(quizID).ask[Resp[?]](Quiz.AddInspector(person, i, _)))
+        case BatchCommand("removeInspector", Some(quizID), _, _, Some(id), _) =>
+          withPerson(id)(i =>
+            entities.quiz(quizID).ask[Resp[?]](Quiz.RemoveInspector(person, i, _))
+          )
+        case x =>
+          Future.successful(Resp.Bad(Quiz.unprocessed("unknown batch command").error() + x.op))
+
+    // commands of a batch are applied one after another in the given order,
+    // each one reported with the status and body of its standalone endpoint
+    def runBatch(person: Person, commands: List[BatchCommand]) =
+      commands
+        .foldLeft(Future.successful(Vector.empty[BatchResult])) { (acc, bc) =>
+          acc.flatMap { results =>
+            batchCall(person, bc)
+              .map {
+                case Resp.OK =>
+                  BatchResult(StatusCodes.NoContent.intValue, None)
+                case Resp.Good(l: List[?]) =>
+                  BatchResult(StatusCodes.OK.intValue, Some(StrList(l.map(_.toString)).toJson))
+                case Resp.Good(r) =>
+                  BatchResult(StatusCodes.BadRequest.intValue, Some(JsString(s"cannot serialize $r")))
+                case Resp.Bad(e) =>
+                  BatchResult(StatusCodes.UnprocessableEntity.intValue, Some(e.toJson))
+              }
+              .recover { case ex =>
+                BatchResult(
+                  StatusCodes.InternalServerError.intValue,
+                  Some(JsString(String.valueOf(ex.getMessage)))
+                )
+              }
+              .map(results :+ _)
+          }
+        }
+        .map(_.toList)
+
     def onQuiz(id: String)(cmd: ActorRef[Resp[?]] => Quiz.Command) =
       val quizent = entities.quiz(id)
       completeCall(quizent.ask[Resp[?]](cmd))
@@ -133,16 +218,93 @@ object HttpFrontend extends JsonFormats:
     pathPrefix("pubapi")(pubapi(host, port))~
     extractRequest { request =>
       auth(request) { person => 
-        pathPrefix("v1") {
+        // long-lived, so kept out of the response encoding that could hold events back
+        path("v1" / "events") {
+          get {
+            import akka.http.scaladsl.marshalling.sse.EventStreamMarshalling.*
+            complete(
+              // events of a quiz go to its curator, authors and inspectors only; after
+              // a gap, as when the connection fell behind, the client fetches again
+              events
+                .statefulMapConcat { () =>
+                  var last = -1L
+                  (a: Addressed) =>
+                    val gap = last >= 0 && a.seq != last + 1
+                    last = a.seq
+                    Option.when(gap)(resync).toList ++
+                      Option.when(a.to(person.id))(
+                        sse.ServerSentEvent(a.push.toJson.compactPrint, a.push.event)
+                      )
+                }
+                .keepAlive(20.seconds, () => sse.ServerSentEvent.heartbeat)
+            )
+          }
+        }~
+        // gzip or deflate both ways, as the client negotiates with Accept-Encoding and Content-Encoding
+        (encodeResponse & decodeRequest) { idempotent(person) { pathPrefix("v1") {
+          path("batch") {
+            post {
+              entity(as[List[BatchCommand]]) { commands =>
+                onSuccess(runBatch(person, commands))(complete(_))
+              }
+            }
+          }~
           path("staff") {
-            onSuccess(authService.getPersons.map(Source(_)))(complete)
+            onSuccess(authService.getPersons)(completeTagged(_))
           }~
           pathPrefix("quiz") {
             pathEnd {
               get {
-                onComplete(read.getList()) {
-                  case Success(r) => complete(Source(r))
-                  case Failure(ex) => complete(StatusCodes.InternalServerError, ex.getMessage)
+                parameters(
+                  "limit".as[Int],
+                  "after".optional,
+                  "sort".withDefault("id"),
+                  "state".optional,
+                  "obsolete".as[Boolean].optional,
+                  "member".optional,
+                  "desc".as[Boolean].withDefault(false)
+                ) { (limit, after, sort, state, obsolete, member, desc) =>
+                  val sortBy = ListQuery.Sort.values.find(_.toString.equalsIgnoreCase(sort))
+                  val stateIs = state.map(s => Quiz.State.values.find(_.toString == s))
+                  if sortBy.isEmpty || stateIs.exists(_.isEmpty) then
+                    complete(StatusCodes.BadRequest, s"unknown sort $sort or state $state")
+                  else
+                    val query = ListQuery(
+                      limit.max(1).min(MaxPage),
+                      after,
+                      sortBy.get,
+                      stateIs.flatten,
+                      obsolete,
+                      member,
+                      desc
+                    )
+                    // the token lets a client showing pages ask for changes since, and
+                    // while it stays the same no row changed, so the page is not read again
+                    onComplete(read.syncToken()) {
+                      case Success(token) =>
+                        respondWithHeader(headers.RawHeader("Sync-Token", token.toString)) {
+                          tagged(s"page $token $query") { format =>
+                            onComplete(read.getPage(query)) {
+                              case Success(page) => represented(format, page.toJson)
+                              case Failure(ex) =>
+                                complete(StatusCodes.InternalServerError, ex.getMessage)
+                            }
+                          }
+                        }
+                      case Failure(ex) => complete(StatusCodes.InternalServerError, ex.getMessage)
+                    }
+                }~
+                // the token is read before the rows, so a change in between is delivered again
+                parameter("since".as[Long].optional) { since =>
+                  onComplete(read.syncToken().flatMap(token =>
+                    since.fold(read.getList())(s => read.getChanged(s)).map(token -> _)
+                  )) {
+                    case Success((token, r)) =>
+                      respondWithHeader(headers.RawHeader("Sync-Token", token.toString)) {
+                        if since.isDefined then complete(r) else completeTagged(r)
+                      }
+                    case Failure(ex) => complete(StatusCodes.InternalServerError, ex.getMessage)
+                  }
                 }
               }
             }~
@@ -188,12 +350,36 @@ object HttpFrontend extends JsonFormats:
                   }
                 }~
                 get {
-                  onQuiz(quizID)(Quiz.Get(person, _))
+                  // the summary leaves items out, they are read per section when needed
+                  parameter("summary".as[Boolean].withDefault(false)) { summary =>
+                    val fut = entities.quiz(quizID).ask[Resp[?]](Quiz.Get(person, _))
+                    onComplete(fut) {
+                      case Success(Resp.Good(f: FullQuiz)) =>
+                        completeTagged(
+                          if summary then f.copy(sections = f.sections.map(_.copy(items = Nil)))
+                          else f
+                        )
+                      case _ => completeCall(fut)
+                    }
+                  }
                 }~
                 delete {
                   onQuiz(quizID)(Quiz.SetObsolete(person, _))
                 }
               }~
+              path("sections" / Segment) { sc =>
+                get {
+                  val fut = entities.quiz(quizID).ask[Resp[?]](Quiz.Get(person, _))
+                  onComplete(fut) {
+                    case Success(Resp.Good(f: FullQuiz)) =>
+                      f.sections.find(_.sc == sc) match
+                        case Some(section) => completeTagged(section)
+                        case None =>
+                          complete(StatusCodes.UnprocessableEntity, Quiz.sectionNotFound.error() + sc)
+                    case _ => completeCall(fut)
+                  }
+                }
+              }~
               path("ready") {
                 delete {
                   onQuiz(quizID)(Quiz.UnsetReadySign(person, _))
@@ -309,11 +495,55 @@ object HttpFrontend extends JsonFormats:
               }
             }
           }
-        }
+        }}}
       }
     }
     // format: on
 
+  val MaxPage = 500
+
+  /** Strong validator over a key of the content and the Accept and Accept-Encoding it is
+    * negotiated with, so each representation of the same content gets its own tag
+    */
+  def etag(
+      key: String,
+      mediaType: MediaType = MediaTypes.`application/json`,
+      acceptEncoding: Option[String] = None
+  ) =
+    val digest = java.security.MessageDigest.getInstance("SHA-256").digest(key.getBytes("UTF-8"))
+    val tag = java.util.Base64.getUrlEncoder.withoutPadding.encodeToString(digest.take(16))
+    val format = if mediaType == MediaTypes.`application/json` then "" else s"-${mediaType.subType}"
+    val coding = acceptEncoding
+      .map(_.replace(" ", "").toLowerCase)
+      .filter(_.nonEmpty)
+      .fold("")(e => s"-${Integer.toHexString(e.hashCode)}")
+    headers.EntityTag(tag + format + coding)
+
+  val varyRepresentation = headers.RawHeader("Vary", "Accept, Accept-Encoding")
+
+  /** Negotiates the wire format and answers 304 for a matching tag of the key before the inner
+    * route runs, so a key cheaper than the content saves the read as well as the transfer
+    */
+  def tagged(key: String)(inner: Option[MediaType] => Route): Route =
+    respondWithHeader(varyRepresentation) {
+      optionalHeaderValueByType(headers.Accept) { accept =>
+        optionalHeaderValueByName("Accept-Encoding") { encoding =>
+          val mt = WireFormat.preferred(accept)
+          conditional(etag(key, mt.getOrElse(MediaTypes.`application/json`), encoding)) {
+            inner(mt)
+          }
+        }
+      }
+    }
+
+  def represented(format: Option[MediaType], js: JsValue): Route = format match
+    case Some(mt) => complete(HttpEntity(ContentType(mt), WireFormat.write(mt, js)))
+    case None     => complete(HttpEntity(ContentTypes.`application/json`, js.compactPrint))
+
+  def completeTagged[T: JsonWriter](value: T): Route =
+    val js = value.toJson
+    tagged(js.compactPrint)(represented(_, js))
+
   val yamlContentType = ContentType(
     MediaType.textWithFixedCharset("vnd.yaml", HttpCharsets.`UTF-8`, "yaml", "yml")
   )
@@ -0,0 +1,61 @@
+package quizzly.author
+
+import akka.actor.typed.ActorSystem
+import akka.http.scaladsl.model.HttpResponse
+import akka.http.scaladsl.server.Directives.*
+import akka.http.scaladsl.server.Route
+import akka.http.scaladsl.server.RouteResult
+import akka.stream.Materializer
+import akka.stream.SystemMaterializer
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration.*
+
+/** Keeps responses of requests carrying an idempotency key, so a retried mutation is answered
+  * with the stored response instead of reaching the entity again. Server errors are not kept and
+  * the request may be retried for real.
+  */
+class Idempotency(capacity: Int)(using system: ActorSystem[?], ec: ExecutionContext):
+
+  given Materializer = SystemMaterializer(system).materializer
+
+  private val responses = java.util.Collections.synchronizedMap(
+    new java.util.LinkedHashMap[String, Future[HttpResponse]](16, 0.75f, true) {
+      override def removeEldestEntry(
+          eldest: java.util.Map.Entry[String, Future[HttpResponse]]
+      ) = size() > capacity
+    }
+  )
+
+  def apply(person: Person)(route: Route): Route =
+    optionalHeaderValueByName(Idempotency.Header) {
+      case None =>
+        route
+      case Some(key) =>
+        val id = s"${person.id}:$key"
+        val promise = Promise[HttpResponse]()
+        Option(responses.putIfAbsent(id, promise.future)) match
+          case Some(stored) =>
+            complete(stored)
+          case None =>
+            mapRouteResultFuture { result =>
+              result.transformWith {
+                case scala.util.Success(RouteResult.Complete(response))
+                    if response.status.intValue < 500 =>
+                  response.entity.toStrict(5.seconds).map { strict =>
+                    val stored = response.withEntity(strict)
+                    promise.success(stored)
+                    RouteResult.Complete(stored)
+                  }
+                case other =>
+                  responses.remove(id)
+                  promise.failure(IllegalStateException(s"request $key not completed"))
+                  Future.fromTry(other)
+              }
+            }(route)
+    }
+
+object Idempotency:
+  val Header = "Idempotency-Key"
@@ -1,5 +1,6 @@
 package quizzly.author
 
+import akka.persistence.query.Sequence
 import akka.projection.*
 import scalikejdbc.*
 
@@ -20,7 +21,17 @@ class LocalProjectionHandler extends JdbcHandler[EventEnvelope[Quiz.Event], Scal
     val id = envelope.persistenceId.split("\\|")(1)
     given ScalikeJdbcSession = session
     given QuizID = id
-    def update[Result](expr: DBSession => Result) = session.db.withinTx(expr(_))
+    // the projection offset versions the listed quiz, clients sync the list from it
+    val version = envelope.offset match
+      case Sequence(v) => v
+      case _           => envelope.timestamp
+    def update[Result](expr: DBSession => Result) = session
+      .db
+      .withinTx { implicit session =>
+        val result = expr(session)
+        sql"update quiz set version=? where id=?".bind(version, id).update.apply()
+        result
+      }
     envelope.event match
       case e: Created =>
         update { implicit session =>
@@ -62,11 +73,11 @@ class LocalProjectionHandler extends JdbcHandler[EventEnvelope[Quiz.Event], Scal
           SQL(delMember).bind(id, inspector.id).execute.apply()
         }
       case GoneForReview =>
-        changeStatus(State.Review)
+        update(changeStatus(State.Review))
       case GoneComposing =>
-        changeStatus(State.Composing)
+        update(changeStatus(State.Composing))
       case GoneReleased =>
-        changeStatus(State.Released)
+        update(changeStatus(State.Released))
       case GotObsolete =>
         update { implicit session =>
           sql"update quiz set obsolete=? where id=?".bind(true, id).update.apply()
@@ -74,8 +85,5 @@ class LocalProjectionHandler extends JdbcHandler[EventEnvelope[Quiz.Event], Scal
 
       case _ =>
 
-  private def changeStatus(state: State)(using id: QuizID, session: ScalikeJdbcSession) = session
-    .db
-    .withinTx { implicit session =>
-      sql"update quiz set status=? where id=?".bind(state.toString, id).update.apply()
-    }
+  private def changeStatus(state: State)(using id: QuizID)(session: DBSession) =
+    sql"update quiz set status=? where id=?".bind(state.toString, id).update.apply()(session)
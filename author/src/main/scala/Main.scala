@@ -76,9 +76,12 @@ object Main:
         def section(id: String) = getSection(id)
     val host = system.settings.config.getString("frontend.http.host")
     val port = system.settings.config.getInt("frontend.http.port")
+    val read = ScalikeRead(system.name)
+    // pushing starts from what the list already reflects
+    val events = QuizEvents.live(system, read, getQuiz)
     Http()
       .newServerAt("0.0.0.0", port)
-      .bind(HttpFrontend(ScalikeRead(system.name), entityAware, auth, host, port))
+      .bind(HttpFrontend(read, entityAware, auth, host, port, events))
       .map(_.addToCoordinatedShutdown(3.seconds))
       .onComplete {
         case Success(binding) =>
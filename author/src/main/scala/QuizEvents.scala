@@ -0,0 +1,129 @@
+package quizzly.author
+
+import akka.NotUsed
+import akka.actor.typed.ActorSystem
+import akka.cluster.sharding.typed.scaladsl.EntityRef
+import akka.persistence.jdbc.query.scaladsl.JdbcReadJournal
+import akka.persistence.query.PersistenceQuery
+import akka.persistence.query.Sequence
+import akka.stream.OverflowStrategy
+import akka.stream.scaladsl.*
+
+import scala.collection.mutable
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.duration.*
+
+/** Quiz event as pushed to the connected clients */
+final case class QuizPush(
+    quiz: QuizID,
+    event: String,
+    person: Option[PersonID] = None,
+    sc: Option[SC] = None,
+    scs: Option[List[SC]] = None
+)
+
+/** Pushed event with the persons it goes to, numbered in the order of the live stream */
+final case class Addressed(push: QuizPush, to: Set[PersonID], seq: Long)
+
+object QuizEvents:
+
+  /** Client visible part of the event, if any */
+  def push(id: QuizID, event: Quiz.Event): Option[QuizPush] =
+    import Quiz.*
+    event match
+      case ReadySignSet(author)           => Some(QuizPush(id, "readySet", Some(author.id)))
+      case ReadySignUnset(author)         => Some(QuizPush(id, "readyUnset", Some(author.id)))
+      case Resolved(inspector, true)      => Some(QuizPush(id, "approved", Some(inspector.id)))
+      case Resolved(inspector, false)     => Some(QuizPush(id, "disapproved", Some(inspector.id)))
+      case AuthorAdded(author)            => Some(QuizPush(id, "authorAdded", Some(author.id)))
+      case AuthorRemoved(author)          => Some(QuizPush(id, "authorRemoved", Some(author.id)))
+      case InspectorAdded(inspector)      => Some(QuizPush(id, "inspectorAdded", Some(inspector.id)))
+      case InspectorRemoved(inspector)    => Some(QuizPush(id, "inspectorRemoved", Some(inspector.id)))
+      case SectionMoved(sc, _)            => Some(QuizPush(id, "sectionMoved", sc = Some(sc)))
+      case SectionRemoved(sc)             => Some(QuizPush(id, "sectionRemoved", sc = Some(sc)))
+      case GotObsolete                    => Some(QuizPush(id, "obsolete"))
+      case _                              => None
+
+  /** Curators and members of the quizzes as of the events applied so far, starting
+    * from the list of the read side; applied by the one stream feeding the hub
+    */
+  final class Members(list: List[QuizListed]):
+
+    private val curators = mutable.Map.from(list.map(q => q.id -> q.curator))
+    private val members =
+      mutable.Map.from(list.map(q => q.id -> (q.authors ++ q.inspectors + q.curator).map(_.id)))
+
+    def curator(id: QuizID): Option[Curator] = curators.get(id)
+
+    /** Applies the event, returning who it goes to: the members before and after it,
+      * so an added member gets their addition and a removed one their removal
+      */
+    def apply(id: QuizID, event: Quiz.Event): Set[PersonID] =
+      import Quiz.*
+      val before = members.getOrElse(id, Set.empty)
+      event match
+        case Created(_, _, _, curator, authors, inspectors, _) =>
+          curators(id) = curator
+          members(id) = (authors ++ inspectors + curator).map(_.id)
+        case AuthorAdded(author)         => members(id) = before + author.id
+        case InspectorAdded(inspector)   => members(id) = before + inspector.id
+        case AuthorRemoved(author)       => members(id) = before - author.id
+        case InspectorRemoved(inspector) => members(id) = before - inspector.id
+        case _                           =>
+      before ++ members.getOrElse(id, Set.empty)
+
+  /** Live quiz events, addressed to the members of their quiz, one query shared by all
+    * connections; a slow subscriber loses its oldest events instead of holding the others
+    * up, which shows as a gap in the numbering. The events start after the list of the read
+    * side was last changed, the members are taken from the list read after that, the events
+    * in between apply again. A moved section is pushed with the order it results in, asked
+    * once per move.
+    */
+  def live(
+      system: ActorSystem[?],
+      read: Read,
+      quiz: QuizID => EntityRef[Quiz.Command]
+  ): Source[Addressed, NotUsed] =
+    given ActorSystem[?] = system
+    given ExecutionContext = system.executionContext
+    given akka.util.Timeout = 2.seconds
+    val journal = PersistenceQuery(system)
+      .readJournalFor[JdbcReadJournal](JdbcReadJournal.Identifier)
+    val events =
+      for
+        offset <- read.syncToken()
+        list <- read.getList()
+      yield
+        val members = Members(list)
+        journal
+          .eventsByTag(Quiz.Tags.Single, Sequence(offset))
+          .mapConcat { envelope =>
+            envelope.event match
+              case e: Quiz.Event =>
+                val id = envelope.persistenceId.split("\\|")(1)
+                val to = members(id, e)
+                push(id, e).map(p => (p, to, members.curator(id))).toList
+              case _ =>
+                Nil
+          }
+    val hub = Source
+      .futureSource(events)
+      .mapAsync(1) {
+        case (p, to, Some(curator)) if p.event == "sectionMoved" =>
+          quiz(p.quiz)
+            .ask[Resp[FullQuiz]](Quiz.Get(curator, _))
+            .map {
+              case Resp.Good(full) => p.copy(scs = Some(full.sections.map(_.sc))) -> to
+              case _               => p -> to
+            }
+            .recover { case _ => p -> to }
+        case (p, to, _) =>
+          Future.successful(p -> to)
+      }
+      .zipWithIndex
+      .map { case ((p, to), seq) => Addressed(p, to, seq) }
+      .runWith(BroadcastHub.sink(bufferSize = 256))
+    // keeps the query running while nobody is connected
+    hub.runWith(Sink.ignore)
+    hub.buffer(256, OverflowStrategy.dropHead)
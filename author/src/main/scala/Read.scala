@@ -13,6 +13,48 @@ case class QuizListed(
     state: Quiz.State
 )
 
+/** Keyset page of the quiz list: quizzes after the cursor in sort order, matching the filters */
+case class ListQuery(
+    limit: Int,
+    after: Option[String] = None,
+    sort: ListQuery.Sort = ListQuery.Sort.Id,
+    state: Option[Quiz.State] = None,
+    obsolete: Option[Boolean] = None,
+    member: Option[PersonID] = None,
+    descending: Boolean = false
+)
+
+object ListQuery:
+
+  enum Sort:
+    case Id,
+      Title
+
+  private val encoder = java.util.Base64.getUrlEncoder.withoutPadding
+  private val decoder = java.util.Base64.getUrlDecoder
+
+  /** opaque position of the quiz in the sort order */
+  def cursor(sort: Sort, quiz: QuizListed): String = sort match
+    case Sort.Id =>
+      quiz.id
+    case Sort.Title =>
+      encoder.encodeToString(s"${quiz.title}\u0000${quiz.id}".getBytes("UTF-8"))
+
+  /** title and id of a title cursor */
+  def decode(cursor: String): (String, String) =
+    val Array(title, id) = String(decoder.decode(cursor), "UTF-8").split("\u0000", 2)
+    title -> id
+
+case class QuizPage(list: List[QuizListed], next: Option[String])
+
 trait Read:
 
   def getList()(using ExecutionContext): Future[List[QuizListed]]
+
+  def getPage(query: ListQuery)(using ExecutionContext): Future[QuizPage]
+
+  /** quizzes created or changed after the given sync token */
+  def getChanged(since: Long)(using ExecutionContext): Future[List[QuizListed]]
+
+  /** projection offset of the latest change of the list */
+  def syncToken()(using ExecutionContext): Future[Long]
@@ -17,27 +17,76 @@ class ScalikeRead(poolName: String) extends Read:
       name: String
   )
 
-  def getList()(using ExecutionContext) = Future {
-    val list = NamedDB(poolName).readOnly { implicit session =>
-      sql"""select q.id,q.title,q.status,q.obsolete,m.role,m.person_id,m.name
-              from quiz q right join member m on q.id=m.id order by q.id,m.role,m.name"""
-        .map { rs =>
-          Row(
-            rs.string("id"),
-            rs.string("title"),
-            rs.string("status"),
-            rs.boolean("obsolete"),
-            rs.int("role"),
-            rs.string("person_id"),
-            rs.string("name")
-          )
-        }
-        .list
-        .apply()
+  def getList()(using ExecutionContext) = Future(select(sqls""))
+
+  def getChanged(since: Long)(using ExecutionContext) =
+    Future(select(sqls"where q.version > ${since}"))
+
+  def syncToken()(using ExecutionContext) = Future {
+    NamedDB(poolName).readOnly { implicit session =>
+      sql"select coalesce(max(version),0) from quiz".map(_.long(1)).single.apply().getOrElse(0L)
     }
+  }
+
+  def getPage(query: ListQuery)(using ExecutionContext) = Future {
+    val (past, dir) = if query.descending then (sqls"<", sqls"desc") else (sqls">", sqls"asc")
+    val (key, keyset) = query.sort match
+      case ListQuery.Sort.Id =>
+        sqls"q.id" -> query.after.map(id => sqls"q.id ${past} ${id}")
+      case ListQuery.Sort.Title =>
+        sqls"q.title" -> query
+          .after
+          .map(ListQuery.decode)
+          .map((title, id) =>
+            sqls"(q.title ${past} ${title} or q.title = ${title} and q.id ${past} ${id})"
+          )
+    val filter = sqls.toAndConditionOpt(
+      keyset,
+      query.state.map(s => sqls"q.status = ${s.toString}"),
+      query.obsolete.map(o => sqls"q.obsolete = ${o}"),
+      query
+        .member
+        .map(p => sqls"exists (select 1 from member x where x.id = q.id and x.person_id = ${p})")
+    )
+    // one row more than the page tells whether another page follows
+    val list = group(rows(sqls"""from (select * from quiz q ${sqls.where(filter)}
+                                         order by ${key} ${dir},q.id ${dir}
+                                         limit ${query.limit + 1}) q
+                                   join member m on q.id=m.id
+                                   order by ${key} ${dir},q.id ${dir},m.role,m.name"""))
+    val page = list.take(query.limit)
+    QuizPage(page, if list.size > query.limit then Some(ListQuery.cursor(query.sort, page.last)) else None)
+  }
+
+  private def select(where: SQLSyntax) =
+    group(rows(sqls"""from quiz q right join member m on q.id=m.id ${where}
+                      order by q.id,m.role,m.name"""))
+
+  private def rows(from: SQLSyntax) = NamedDB(poolName).readOnly { implicit session =>
+    sql"select q.id,q.title,q.status,q.obsolete,m.role,m.person_id,m.name ${from}"
+      .map { rs =>
+        Row(
+          rs.string("id"),
+          rs.string("title"),
+          rs.string("status"),
+          rs.boolean("obsolete"),
+          rs.int("role"),
+          rs.string("person_id"),
+          rs.string("name")
+        )
+      }
+      .list
+      .apply()
+  }
+
+  // quizzes keep the order of their first rows
+  private def group(list: List[Row]) =
+    val byId = list.groupBy(_.id)
     list
-      .groupBy(_.id)
-      .map { (id, rows) =>
+      .map(_.id)
+      .distinct
+      .map { id =>
+        val rows = byId(id)
         val members = rows.groupMap(_.role)(r => Person(r.person_id, r.name))
 
         QuizListed(
@@ -45,8 +94,8 @@ class ScalikeRead(poolName: String) extends Read:
           rows.head.title,
           rows.head.obsolete,
           members(1).head,
-          members(2).toSet,
-          members(3).toSet,
+          members.getOrElse(2, Nil).toSet,
+          members.getOrElse(3, Nil).toSet,
           rows.head.status match
             case "Composing" =>
               Quiz.State.Composing
@@ -58,5 +107,3 @@ class ScalikeRead(poolName: String) extends Read:
               Quiz.State.Released
         )
       }
-      .toList
-  }
@@ -0,0 +1,108 @@
+package quizzly.author
+
+import akka.http.scaladsl.marshalling.Marshaller
+import akka.http.scaladsl.marshalling.ToEntityMarshaller
+import akka.http.scaladsl.model.*
+import akka.http.scaladsl.unmarshalling.FromEntityUnmarshaller
+import akka.http.scaladsl.unmarshalling.Unmarshaller
+import akka.util.ByteString
+import com.fasterxml.jackson.core.JsonFactory
+import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory
+import com.fasterxml.jackson.dataformat.smile.SmileFactory
+import spray.json.*
+
+import java.io.ByteArrayOutputStream
+
+/** Binary representations of the api bodies, negotiated with Accept and Content-Type.
+  *
+  * Values are converted between spray-json ASTs and the Jackson streaming API, so the
+  * existing json formats describe the binary bodies as well.
+  */
+object WireFormat:
+
+  val cbor = MediaType.applicationBinary("cbor", MediaType.NotCompressible)
+  val smile = MediaType.applicationBinary("x-jackson-smile", MediaType.NotCompressible)
+
+  private val factories: Map[MediaType, JsonFactory] =
+    Map(cbor -> CBORFactory(), smile -> SmileFactory())
+
+  val mediaTypes: Seq[MediaType.Binary] = Seq(cbor, smile)
+
+  /** binary format explicitly asked for, wildcards keep json */
+  def preferred(accept: Option[headers.Accept]): Option[MediaType.Binary] =
+    accept.toSeq
+      .flatMap(_.mediaRanges)
+      .filter(_.qValue > 0)
+      .sortBy(-_.qValue)
+      .collectFirst {
+        case MediaRange.One(mt, _) if mt == MediaTypes.`application/json` || factories.contains(mt) => mt
+      }
+      .collect { case mt: MediaType.Binary => mt }
+
+  def write(mediaType: MediaType, value: JsValue): ByteString =
+    val out = ByteArrayOutputStream()
+    val gen = factories(mediaType).createGenerator(out)
+    try write(gen, value)
+    finally gen.close()
+    ByteString.fromArrayUnsafe(out.toByteArray)
+
+  private def write(gen: JsonGenerator, value: JsValue): Unit = value match
+    case JsObject(fields) =>
+      gen.writeStartObject()
+      fields.foreach { (name, v) =>
+        gen.writeFieldName(name)
+        write(gen, v)
+      }
+      gen.writeEndObject()
+    case JsArray(elements) =>
+      gen.writeStartArray()
+      elements.foreach(write(gen, _))
+      gen.writeEndArray()
+    case JsString(s) => gen.writeString(s)
+    case JsNumber(n) =>
+      if n.isValidInt then gen.writeNumber(n.toInt)
+      else if n.isValidLong then gen.writeNumber(n.toLong)
+      else gen.writeNumber(n.bigDecimal)
+    case JsBoolean(b) => gen.writeBoolean(b)
+    case JsNull       => gen.writeNull()
+
+  def read(mediaType: MediaType, bytes: ByteString): JsValue =
+    val parser = factories(mediaType).createParser(bytes.toArrayUnsafe())
+    try read(parser, parser.nextToken())
+    finally parser.close()
+
+  private def read(parser: JsonParser, token: JsonToken): JsValue = token match
+    case JsonToken.START_OBJECT =>
+      val fields = Map.newBuilder[String, JsValue]
+      while parser.nextToken() == JsonToken.FIELD_NAME do
+        val name = parser.getCurrentName
+        fields += name -> read(parser, parser.nextToken())
+      JsObject(fields.result())
+    case JsonToken.START_ARRAY =>
+      val elements = Vector.newBuilder[JsValue]
+      var next = parser.nextToken()
+      while next != JsonToken.END_ARRAY do
+        elements += read(parser, next)
+        next = parser.nextToken()
+      JsArray(elements.result())
+    case JsonToken.VALUE_STRING       => JsString(parser.getText)
+    case JsonToken.VALUE_NUMBER_INT   => JsNumber(BigInt(parser.getBigIntegerValue))
+    case JsonToken.VALUE_NUMBER_FLOAT => JsNumber(BigDecimal(parser.getDecimalValue))
+    case JsonToken.VALUE_TRUE         => JsTrue
+    case JsonToken.VALUE_FALSE        => JsFalse
+    case JsonToken.VALUE_NULL         => JsNull
+    case other                        => throw DeserializationException(s"unexpected $other")
+
+  val marshallers: Seq[ToEntityMarshaller[JsValue]] = mediaTypes.map(mt =>
+    Marshaller.withFixedContentType(ContentType(mt)) { (value: JsValue) =>
+      HttpEntity(ContentType(mt), write(mt, value))
+    }
+  )
+
+  val unmarshaller: FromEntityUnmarshaller[JsValue] =
+    Unmarshaller.byteStringUnmarshaller
+      .forContentTypes(mediaTypes.map(ContentTypeRange(_))*)
+      .mapWithInput((entity, bytes) => read(entity.contentType.mediaType, bytes))
@@ -4,14 +4,20 @@ import akka.actor.testkit.typed.scaladsl.ActorTestKit
 import akka.actor.typed.*
 import akka.cluster.sharding.typed.scaladsl.EntityRef
 import akka.cluster.sharding.typed.testkit.scaladsl.TestEntityRef
+import akka.http.scaladsl.coding.Coders
 import akka.http.scaladsl.marshalling.*
 import akka.http.scaladsl.model.*
 import akka.http.scaladsl.testkit.ScalatestRouteTest
+import akka.http.scaladsl.unmarshalling.Unmarshal
+import akka.stream.scaladsl.Source
 import com.typesafe.config.ConfigFactory
 import org.scalatest.*
+import spray.json.*
 
+import scala.concurrent.Await
 import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
+import scala.concurrent.duration.*
 
 import scaladsl.Behaviors
 
@@ -125,6 +131,11 @@ class HttpFrontendSpec
 
   object read extends Read:
     def getList()(using ExecutionContext) = Future(quizList)
+    def getPage(query: ListQuery)(using ExecutionContext) =
+      Future(QuizPage(quizList.filter(q => query.state.forall(_ == q.state)), Some("next")))
+    def getChanged(since: Long)(using ExecutionContext) =
+      Future(if since < 7 then quizList else List.empty)
+    def syncToken()(using ExecutionContext) = Future(7L)
 
   def get(path: String, personId: PersonID) = Get(s"/v1/$path") ~> addHeader("pl", personId)
   def post(path: String, personId: PersonID) = Post(s"/v1/$path") ~> addHeader("pl", personId)
@@ -169,6 +180,63 @@ class HttpFrontendSpec
           check {
             status shouldBe StatusCodes.OK
             responseAs[List[QuizListed]] shouldBe quizList
+            header("Sync-Token").map(_.value) shouldBe Some("7")
+          }
+      }
+      "return page of quizzes" in {
+        get("quiz?limit=10&sort=title&state=Composing", p1.id) ~> HttpFrontend(read, eaware, auth) ~>
+          check {
+            status shouldBe StatusCodes.OK
+            responseAs[QuizPage] shouldBe QuizPage(quizList, Some("next"))
+            header("Sync-Token").map(_.value) shouldBe Some("7")
+          }
+        get("quiz?limit=10&state=Review", p1.id) ~> HttpFrontend(read, eaware, auth) ~>
+          check {
+            responseAs[QuizPage] shouldBe QuizPage(Nil, Some("next"))
+          }
+      }
+      "return not modified page while sync token stays" in {
+        val uri = "quiz?limit=10&state=Composing"
+        var tag = Option.empty[headers.EntityTag]
+        get(uri, p1.id) ~> HttpFrontend(read, eaware, auth) ~>
+          check {
+            tag = header[headers.ETag].map(_.etag)
+            header("Vary").map(_.value) shouldBe Some("Accept, Accept-Encoding")
+          }
+        get(uri, p1.id) ~> addHeader(headers.`If-None-Match`(tag.get)) ~>
+          HttpFrontend(read, eaware, auth) ~>
+          check {
+            status shouldBe StatusCodes.NotModified
+          }
+        get("quiz?limit=20&state=Composing", p1.id) ~> addHeader(headers.`If-None-Match`(tag.get)) ~>
+          HttpFrontend(read, eaware, auth) ~>
+          check {
+            status shouldBe StatusCodes.OK
+          }
+      }
+      "return page in descending order" in {
+        get("quiz?limit=10&sort=title&desc=true", p1.id) ~> HttpFrontend(read, eaware, auth) ~>
+          check {
+            status shouldBe StatusCodes.OK
+            responseAs[QuizPage] shouldBe QuizPage(quizList, Some("next"))
+          }
+      }
+      "not return page for unknown sort" in {
+        get("quiz?limit=10&sort=size", p1.id) ~> HttpFrontend(read, eaware, auth) ~>
+          check {
+            status shouldBe StatusCodes.BadRequest
+          }
+      }
+      "return quizzes changed since token" in {
+        get("quiz?since=7", p1.id) ~> HttpFrontend(read, eaware, auth) ~>
+          check {
+            status shouldBe StatusCodes.OK
+            responseAs[List[QuizListed]] shouldBe empty
+            header("Sync-Token").map(_.value) shouldBe Some("7")
+          }
+        get("quiz?since=3", p1.id) ~> HttpFrontend(read, eaware, auth) ~>
+          check {
+            responseAs[List[QuizListed]] shouldBe quizList
           }
       }
     }
@@ -202,6 +270,28 @@ class HttpFrontendSpec
             responseAs[Error] shouldBe Quiz.tooShortTitle.error()
           }
       }
+      "read gzipped body" in {
+        Coders.Gzip.encodeMessage(post("quiz", p2.id, create)) ~>
+          stdquiz("q1", Bad(Quiz.tooShortTitle.error())) ~>
+          check {
+            status shouldBe StatusCodes.UnprocessableEntity
+            responseAs[Error] shouldBe Quiz.tooShortTitle.error()
+          }
+      }
+      "read smile body and answer in smile" in {
+        val body = HttpEntity(
+          ContentType(WireFormat.smile),
+          WireFormat.write(WireFormat.smile, create.toJson)
+        )
+        Post("/v1/quiz", body) ~> addHeader("pl", p2.id) ~>
+          addHeader(headers.Accept(WireFormat.smile)) ~>
+          stdquiz("q1", Bad(Quiz.tooShortTitle.error())) ~>
+          check {
+            status shouldBe StatusCodes.UnprocessableEntity
+            mediaType shouldBe WireFormat.smile
+            responseAs[Error] shouldBe Quiz.tooShortTitle.error()
+          }
+      }
     }
   }
 
@@ -213,6 +303,18 @@ class HttpFrontendSpec
             responseAs[Set[Person]] shouldBe persons.values.toSet
           }
       }
+      "return not modified for matching etag" in {
+        val tag = HttpFrontend.etag(persons.values.toSet.toJson.compactPrint)
+        get("staff", p1.id) ~> HttpFrontend(read, eaware, auth) ~>
+          check {
+            header[headers.ETag] shouldBe Some(headers.ETag(tag))
+          }
+        get("staff", p1.id) ~> addHeader(headers.`If-None-Match`(tag)) ~>
+          HttpFrontend(read, eaware, auth) ~>
+          check {
+            status shouldBe StatusCodes.NotModified
+          }
+      }
     }
   }
 
@@ -225,6 +327,77 @@ class HttpFrontendSpec
             responseAs[FullQuiz] shouldBe fullquiz
           }
       }
+      "return quiz summary without items" in {
+        get("quiz/q1?summary=true", p1.id) ~> stdquiz("q1", Good(fullquiz)) ~>
+          check {
+            status shouldBe StatusCodes.OK
+            responseAs[FullQuiz] shouldBe
+              fullquiz.copy(sections = fullquiz.sections.map(_.copy(items = Nil)))
+          }
+      }
+      "return section with items" in {
+        get("quiz/q1/sections/q1-1", p1.id) ~> stdquiz("q1", Good(fullquiz)) ~>
+          check {
+            status shouldBe StatusCodes.OK
+            responseAs[Section] shouldBe fullquiz.sections.head
+          }
+      }
+      "not return unknown section" in {
+        get("quiz/q1/sections/q1-7", p1.id) ~> stdquiz("q1", Good(fullquiz)) ~>
+          check {
+            status shouldBe StatusCodes.UnprocessableEntity
+            responseAs[Error] shouldBe Quiz.sectionNotFound.error() + "q1-7"
+          }
+      }
+      "return full quiz as cbor when asked" in {
+        val tag = HttpFrontend.etag(fullquiz.toJson.compactPrint, WireFormat.cbor)
+        get("quiz/q1", p1.id) ~> addHeader(headers.Accept(WireFormat.cbor)) ~>
+          stdquiz("q1", Good(fullquiz)) ~>
+          check {
+            status shouldBe StatusCodes.OK
+            mediaType shouldBe WireFormat.cbor
+            header[headers.ETag] shouldBe Some(headers.ETag(tag))
+            responseAs[FullQuiz] shouldBe fullquiz
+          }
+      }
+      "return gzipped full quiz when accepted" in {
+        val large = fullquiz.copy(intro = "long intro " * 500)
+        get("quiz/q1", p1.id) ~> addHeader(headers.`Accept-Encoding`(HttpEncodings.gzip)) ~>
+          stdquiz("q1", Good(large)) ~>
+          check {
+            status shouldBe StatusCodes.OK
+            header[headers.`Content-Encoding`] shouldBe
+              Some(headers.`Content-Encoding`(HttpEncodings.gzip))
+            Await.result(
+              Unmarshal(Coders.Gzip.decodeMessage(response)).to[FullQuiz],
+              3.seconds
+            ) shouldBe large
+          }
+      }
+      "tag gzipped full quiz apart from identity" in {
+        val json = fullquiz.toJson.compactPrint
+        val tag = HttpFrontend.etag(json, acceptEncoding = Some("gzip"))
+        tag should not be HttpFrontend.etag(json)
+        get("quiz/q1", p1.id) ~> addHeader(headers.`Accept-Encoding`(HttpEncodings.gzip)) ~>
+          stdquiz("q1", Good(fullquiz)) ~>
+          check {
+            header[headers.ETag] shouldBe Some(headers.ETag(tag))
+            header("Vary").map(_.value) shouldBe Some("Accept, Accept-Encoding")
+          }
+        get("quiz/q1", p1.id) ~> addHeader(headers.`If-None-Match`(tag)) ~>
+          stdquiz("q1", Good(fullquiz)) ~>
+          check {
+            status shouldBe StatusCodes.OK
+          }
+      }
+      "return not modified full quiz for matching etag" in {
+        val tag = HttpFrontend.etag(fullquiz.toJson.compactPrint)
+        get("quiz/q1", p1.id) ~> addHeader(headers.`If-None-Match`(tag)) ~>
+          stdquiz("q1", Good(fullquiz)) ~>
+          check {
+            status shouldBe StatusCodes.NotModified
+          }
+      }
       "not return full quiz with error" in {
         get("quiz/q1", p1.id) ~> stdquiz("q1", Bad(Quiz.notMember.error())) ~>
           check {
@@ -373,6 +546,27 @@ class HttpFrontendSpec
             responseAs[Error] shouldBe err
           }
       }
+      "set readiness sign once for repeated idempotency key" in {
+        val received = java.util.concurrent.atomic.AtomicInteger()
+        val route = spcquiz(
+          "qx",
+          Behaviors.receiveMessage {
+            case Quiz.SetReadySign(`p4`, replyTo) =>
+              received.incrementAndGet()
+              replyTo ! Resp.OK
+              Behaviors.stopped
+            case x =>
+              fail(s"received wrong command $x")
+              Behaviors.stopped
+          }
+        )
+        for _ <- 1 to 2 do
+          patch("quiz/qx/ready", p4.id) ~> addHeader(Idempotency.Header, "k1") ~> route ~>
+            check {
+              status shouldBe StatusCodes.NoContent
+            }
+        received.get shouldBe 1
+      }
     }
   }
 
@@ -832,3 +1026,84 @@ class HttpFrontendSpec
       }
     }
   }
+
+  "batch" when {
+    "POST" should {
+      "apply commands in order and report each result" in {
+        val route = spcsect(
+          "sx",
+          Behaviors.receiveMessage {
+            case SectionEdit.MoveItem(`p4`, "2", true, replyTo) =>
+              replyTo ! Good(List("2", "1", "3"))
+              Behaviors.stopped
+            case x =>
+              fail(s"received wrong command $x")
+              Behaviors.stopped
+          }
+        )
+        val commands = List(
+          BatchCommand("moveItem", None, Some("sx"), Some("2"), None, Some(true)),
+          BatchCommand("renameItem", None, Some("sx"), Some("2"), None, None)
+        )
+        post("batch", p4.id, commands) ~> route ~>
+          check {
+            status shouldBe StatusCodes.OK
+            responseAs[List[BatchResult]] shouldBe List(
+              BatchResult(200, Some(StrList(List("2", "1", "3")).toJson)),
+              BatchResult(
+                422,
+                Some((Quiz.unprocessed("unknown batch command").error() + "renameItem").toJson)
+              )
+            )
+          }
+      }
+    }
+  }
+
+  "events" when {
+    "GET" should {
+      "stream pushed quiz events" in {
+        val events = Source(List(
+          Addressed(QuizPush("q1", "readySet", Some(p2.id)), Set(p1.id, p2.id), 0),
+          Addressed(QuizPush("q1", "obsolete"), Set(p1.id), 1)
+        ))
+        get("events", p1.id) ~>
+          HttpFrontend(read, eaware, auth, events = events) ~>
+          check {
+            status shouldBe StatusCodes.OK
+            mediaType shouldBe MediaTypes.`text/event-stream`
+            val body = responseAs[String]
+            body should include("event:readySet")
+            body should include("\"person\":\"p2\"")
+            body should include("event:obsolete")
+          }
+      }
+      "push only the events addressed to the person" in {
+        val events = Source(List(
+          Addressed(QuizPush("q1", "readySet", Some(p2.id)), Set(p1.id, p2.id), 0),
+          Addressed(QuizPush("q1", "authorRemoved", Some(p5.id)), Set(p1.id, p5.id), 1)
+        ))
+        get("events", p5.id) ~>
+          HttpFrontend(read, eaware, auth, events = events) ~>
+          check {
+            val body = responseAs[String]
+            body should include("event:authorRemoved")
+            body should not include ("event:readySet")
+          }
+      }
+      "tell the client to fetch again after lost events" in {
+        val events = Source(List(
+          Addressed(QuizPush("q1", "readySet", Some(p2.id)), Set(p1.id, p2.id), 0),
+          Addressed(QuizPush("q1", "obsolete"), Set(p1.id), 3)
+        ))
+        get("events", p5.id) ~>
+          HttpFrontend(read, eaware, auth, events = events) ~>
+          check {
+            val body = responseAs[String]
+            body should include("event:resync")
+            body should not include ("event:obsolete")
+          }
+      }
+    }
+  }
+
@@ -209,4 +209,15 @@ class LocalProjectionHandlerSpec
         }
       }
 
+      "version quiz by offset" in {
+        val p = proj("q1", created, Quiz.GoneForReview)
+        val last = _seq
+        projTestKit.run(p) {
+          val version = DB.readOnly { implicit session =>
+            sql"select version from quiz where id='q1'".map(_.long(1)).single.apply()
+          }
+          version shouldBe Some(last)
+        }
+      }
+
     }
@@ -0,0 +1,38 @@
+package quizzly.author
+
+import org.scalatest.*
+
+class QuizEventsSpec extends wordspec.AnyWordSpec, matchers.should.Matchers:
+
+  val curator = Person("c", "curator name")
+  val author1 = Person("a1", "author1 name")
+  val author2 = Person("a2", "author2 name")
+  val inspector = Person("i1", "inspector name")
+  val stranger = Person("s", "stranger name")
+
+  val listed =
+    QuizListed("q1", "q1 title", false, curator, Set(author1), Set(inspector), Quiz.State.Composing)
+
+  "Members" should {
+    "address events of a listed quiz to its members" in {
+      val members = QuizEvents.Members(List(listed))
+      members("q1", Quiz.ReadySignSet(author1)) shouldBe Set("c", "a1", "i1")
+      members.curator("q1") shouldBe Some(curator)
+    }
+    "address nothing of an unknown quiz" in {
+      QuizEvents.Members(Nil)("q2", Quiz.GotObsolete) shouldBe empty
+    }
+    "follow created quizzes" in {
+      val members = QuizEvents.Members(Nil)
+      members("q2", Quiz.Created("q2", "t", "i", curator, Set(author2), Set(inspector), 10))
+      members("q2", Quiz.GotObsolete) shouldBe Set("c", "a2", "i1")
+      members.curator("q2") shouldBe Some(curator)
+    }
+    "address an addition to the added member and a removal to the removed one" in {
+      val members = QuizEvents.Members(List(listed))
+      members("q1", Quiz.AuthorAdded(author2)) should contain("a2")
+      members("q1", Quiz.InspectorRemoved(inspector)) should contain("i1")
+      members("q1", Quiz.GotObsolete) shouldBe Set("c", "a1", "a2")
+      members("q1", Quiz.GotObsolete) should not contain (stranger.id)
+    }
+  }
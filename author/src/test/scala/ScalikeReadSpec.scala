@@ -58,9 +58,9 @@ class ScalikeReadSpec extends wordspec.AsyncWordSpec, BeforeAndAfterAll, matcher
 
     NamedDB(testKit.system.name).localTx { implicit session =>
       val insmemb = "insert into member (id,role,person_id,name) values (?,?,?,?)"
-      def ins(q: QuizListed) =
-        sql"insert into quiz (id,title,status,obsolete) values (?,?,?,?)"
-          .bind(q.id, q.title, q.state.toString, q.obsolete)
+      def ins(q: QuizListed, version: Long) =
+        sql"insert into quiz (id,title,status,obsolete,version) values (?,?,?,?,?)"
+          .bind(q.id, q.title, q.state.toString, q.obsolete, version)
           .update
           .apply()
         SQL(insmemb).bind(q.id, 1, q.curator.id, q.curator.name).update.apply()
@@ -72,9 +72,9 @@ class ScalikeReadSpec extends wordspec.AsyncWordSpec, BeforeAndAfterAll, matcher
           .foreach { i =>
             SQL(insmemb).bind(q.id, 3, i.id, i.name).update.apply()
           }
-      ins(q1)
-      ins(q2)
-      ins(q3)
+      ins(q1, 1)
+      ins(q2, 2)
+      ins(q3, 3)
     }
 
   override def afterAll() =
@@ -89,4 +89,54 @@ class ScalikeReadSpec extends wordspec.AsyncWordSpec, BeforeAndAfterAll, matcher
           list should contain inOrder (q1, q2, q3)
         }
     }
+    "return pages of quizzes" in {
+      val read = ScalikeRead(testKit.system.name)
+      for
+        first <- read.getPage(ListQuery(2))
+        second <- read.getPage(ListQuery(2, first.next))
+      yield
+        first shouldBe QuizPage(List(q1, q2), Some("2"))
+        second shouldBe QuizPage(List(q3), None)
+    }
+    "return pages sorted by title" in {
+      val read = ScalikeRead(testKit.system.name)
+      for
+        first <- read.getPage(ListQuery(1, sort = ListQuery.Sort.Title))
+        second <- read.getPage(ListQuery(5, first.next, ListQuery.Sort.Title))
+      yield
+        first.list shouldBe List(q1)
+        ListQuery.decode(first.next.get) shouldBe ("quiz 1" -> "1")
+        second shouldBe QuizPage(List(q2, q3), None)
+    }
+    "return pages in descending order" in {
+      val read = ScalikeRead(testKit.system.name)
+      for
+        first <- read.getPage(ListQuery(2, descending = true))
+        second <- read.getPage(ListQuery(2, first.next, descending = true))
+        byTitle <- read.getPage(ListQuery(5, sort = ListQuery.Sort.Title, descending = true))
+      yield
+        first shouldBe QuizPage(List(q3, q2), Some("2"))
+        second shouldBe QuizPage(List(q1), None)
+        byTitle.list shouldBe List(q3, q2, q1)
+    }
+    "return filtered page" in {
+      val read = ScalikeRead(testKit.system.name)
+      for
+        review <- read.getPage(ListQuery(10, state = Some(Quiz.State.Review)))
+        obsolete <- read.getPage(ListQuery(10, obsolete = Some(true)))
+        member <- read.getPage(ListQuery(10, member = Some(inspector3.id)))
+      yield
+        review.list shouldBe List(q2)
+        obsolete.list shouldBe List(q3)
+        member.list shouldBe List(q2)
+    }
+    "return quizzes changed since token" in {
+      val read = ScalikeRead(testKit.system.name)
+      for
+        token <- read.syncToken()
+        list <- read.getChanged(1)
+      yield
+        token shouldBe 3
+        list should contain theSameElementsAs List(q2, q3)
+    }
   }
@@ -0,0 +1,57 @@
+package author.bus;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.DefaultAccessorNamingStrategy;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of gzipping and inflating full quiz bodies of growing size. Setup prints the
+ * compressed to raw ratio; compression pays off once the transfer time of the saved
+ * bytes exceeds {@code gzip + gunzip} at the link speed. Generated quizzes repeat a lot
+ * and compress better than real ones, so read the ratio as an upper bound.
+ *
+ * Run with {@code sbt "authorClientBench/Jmh/run CompressionBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+  /** sections of 10 items each */
+  @Param({"1", "5", "20", "60"})
+  public int sections;
+
+  private byte[] raw;
+  private byte[] compressed;
+
+  @Setup
+  public void setup() throws Exception {
+    var mapper = new ObjectMapper();
+    mapper.setAccessorNaming(new DefaultAccessorNamingStrategy.Provider().withGetterPrefix(""));
+    raw = mapper.writeValueAsBytes(JsonBenchmark.fullQuiz("q1", sections, 10));
+    compressed = Compression.gzip(raw);
+    System.out.printf("%n%d sections: %d bytes, gzipped %d bytes (%.1f%%)%n",
+      sections, raw.length, compressed.length, 100.0 * compressed.length / raw.length);
+  }
+
+  @Benchmark
+  public byte[] gzip() {
+    return Compression.gzip(raw);
+  }
+
+  @Benchmark
+  public byte[] gunzip() throws Exception {
+    try (var in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return in.readAllBytes();
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+package author.bus;
+
+import author.dtos.*;
+import author.events.ApiResponse;
+import author.events.LoginEvent;
+import author.requests.ApiRequest;
+import author.requests.LoginRequest;
+import author.util.Bus;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures what {@link HttpApiBus} spends on a request before it reaches the network:
+ * finding the call declared for the request and building its {@link java.net.http.HttpRequest}
+ * (including path templating).
+ *
+ * Run with {@code sbt "authorClientBench/Jmh/run DispatchBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+  private static final OutPerson USER = new OutPerson("author1 name", "author1");
+
+  /** requests per invocation of {@link #dispatchAndBuild}, the array is checked against it */
+  private static final int REQUEST_COUNT = 24;
+
+  private static final ApiRequest[] REQUESTS = {
+    new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null),
+    ApiRequest.GET_STAFF,
+    new ApiRequest.GetQuiz("q1"),
+    new ApiRequest.Create("q2", "title", Set.of("a1", "a2"), Set.of("i1", "i2")),
+    new ApiRequest.UpdateQuiz("q1", "title", "intro", 30),
+    new ApiRequest.SetObsolete("q1"),
+    new ApiRequest.AddAuthor("q1", "a3"),
+    new ApiRequest.RemoveAuthor("q1", "a3"),
+    new ApiRequest.AddInspector("q1", "i3"),
+    new ApiRequest.RemoveInspector("q1", "i3"),
+    new ApiRequest.CreateSection("q1", "section"),
+    new ApiRequest.MoveSection("q1", "q1-2", true),
+    new ApiRequest.RemoveSection("q1-2", "q1"),
+    new ApiRequest.SetReady("q1"),
+    new ApiRequest.UnsetReady("q1"),
+    new ApiRequest.Approve("q1"),
+    new ApiRequest.Disapprove("q1"),
+    new ApiRequest.UpdateSection("q1-1", "title", "intro"),
+    new ApiRequest.OwnSection("q1", "q1-1"),
+    new ApiRequest.DischargeSection("q1-1"),
+    new ApiRequest.AddItem("q1-1"),
+    new ApiRequest.RemoveItem("q1-1", "4"),
+    new ApiRequest.MoveItem("q1-1", "4", false),
+    new ApiRequest.SaveItem("q1-1", new OutItem("4", "", new OutStatement("definition", null),
+      List.of(List.of(new OutStatement("hint", null))), false, List.of(0)))
+  };
+
+  static {
+    if (REQUESTS.length != REQUEST_COUNT)
+      throw new IllegalStateException(
+        REQUESTS.length + " requests measured as " + REQUEST_COUNT + " operations");
+  }
+
+  private HttpApiBus bus;
+
+  @Setup
+  public void setup() {
+    PublishSubject<LoginEvent> loginEvents = PublishSubject.create();
+    bus = new HttpApiBus("http://localhost:9099/v1", new Bus<LoginEvent, LoginRequest>() {
+      @Override public Observable<LoginEvent> in() { return loginEvents; }
+      @Override public Consumer<LoginRequest> out() { return r -> {}; }
+    }, m -> {}, TransportSettings.DEFAULT.withPushReconnect(Duration.ZERO));
+    loginEvents.onNext(new LoginEvent.Success(USER.id(), USER));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(REQUEST_COUNT)
+  public void dispatchAndBuild(Blackhole bh) {
+    for (ApiRequest r : REQUESTS)
+      bh.consume(bus.buildRequest(r));
+  }
+
+  @Benchmark
+  public Object uriTemplate() {
+    return bus.uri("/section/{}/items/{}?up={}", "q1-1", "4", "true");
+  }
+
+}
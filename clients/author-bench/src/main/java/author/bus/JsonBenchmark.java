@@ -0,0 +1,103 @@
+package author.bus;
+
+import author.dtos.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.DefaultAccessorNamingStrategy;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Decoding of the payloads that dominate opening a quiz: a full quiz with many sections
+ * and items, and the quiz list. Compares the plain {@link ObjectMapper} entry points
+ * with the cached readers of {@link Json}, with and without Blackbird.
+ *
+ * Run with {@code sbt "authorClientBench/Jmh/run JsonBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+  @Param({"false", "true"})
+  public boolean accelerated;
+
+  private ObjectMapper mapper;
+  private Json json;
+  private byte[] fullQuiz;
+  private byte[] quizList;
+
+  @Setup
+  public void setup() throws Exception {
+    mapper = new ObjectMapper();
+    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    mapper.setAccessorNaming(new DefaultAccessorNamingStrategy.Provider().withGetterPrefix(""));
+    json = new Json(accelerated);
+    fullQuiz = mapper.writeValueAsBytes(fullQuiz("q1", 20, 15));
+    quizList = mapper.writeValueAsBytes(IntStream.range(0, 300)
+      .mapToObj(i -> listed("q" + i)).collect(Collectors.toList()));
+  }
+
+  private static Set<OutPerson> people(String prefix, int n) {
+    return IntStream.range(0, n).mapToObj(i -> new OutPerson(prefix + i + " name", prefix + i))
+      .collect(Collectors.toSet());
+  }
+
+  private static OutQuizListed listed(String id) {
+    return new OutQuizListed(id, id + " title", false, new OutPerson("curator name", "curator"),
+      people("author", 3), people("inspector", 3), "Composing");
+  }
+
+  static OutFullQuiz fullQuiz(String id, int sections, int items) {
+    var secs = new ArrayList<OutSection>();
+    for (int s = 0; s < sections; s++) {
+      var its = new ArrayList<OutItem>();
+      for (int i = 0; i < items; i++)
+        its.add(new OutItem(String.valueOf(i), "item " + i + " intro",
+          new OutStatement("definition of the item " + i + " with {{blanks}} to fill", null),
+          List.of(
+            List.of(new OutStatement("first hint", null), new OutStatement("second hint", "img.png")),
+            List.of(new OutStatement("another hint", null))),
+          i % 2 == 0, List.of(0, 2)));
+      secs.add(new OutSection(id + "-" + s, "section " + s + " title", "section " + s + " intro", its));
+    }
+    var authors = people("author", 3);
+    var inspectors = people("inspector", 3);
+    return new OutFullQuiz(id, id + " title", id + " intro", new OutPerson("curator name", "curator"),
+      authors, inspectors, 30, authors, Set.of(), Set.of(), false, secs, "Composing");
+  }
+
+  @Benchmark
+  public Object fullQuizMapper() throws Exception {
+    return mapper.readValue(new ByteArrayInputStream(fullQuiz), OutFullQuiz.class);
+  }
+
+  @Benchmark
+  public Object fullQuizCached() {
+    return json.read(new ByteArrayInputStream(fullQuiz), OutFullQuiz.class);
+  }
+
+  @Benchmark
+  public Object quizListMapper() throws Exception {
+    return mapper.readValue(new ByteArrayInputStream(quizList),
+      mapper.getTypeFactory().constructCollectionType(List.class, OutQuizListed.class));
+  }
+
+  @Benchmark
+  public Object quizListCached() {
+    return json.readList(new ByteArrayInputStream(quizList), OutQuizListed.class);
+  }
+
+}
@@ -0,0 +1,98 @@
+package author.panes;
+
+import author.events.ApiResponse;
+import author.events.LoginEvent;
+import author.messages.RootUIMessage;
+import author.requests.ApiRequest;
+import author.requests.LoginRequest;
+import author.util.Bus;
+import author.util.PipeBus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+
+import javafx.application.Platform;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the startup of the client up to the first interactive frame, the root
+ * pane with the main pane attached: built on the FX thread in one go, as before, and
+ * with the FXML parsing and the panes built on a pool while the login pane is up.
+ * Each invocation parses the FXML and builds the panes anew; classes are loaded by then.
+ *
+ * Run with {@code sbt "authorClientBench/Jmh/run StartupBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 30)
+@Fork(1)
+public class StartupBenchmark {
+
+  private ExecutorService pool;
+
+  @Setup
+  public void setup() {
+    try {
+      Platform.startup(() -> {});
+    } catch (IllegalStateException ignore) {}
+    pool = Executors.newFixedThreadPool(4, r -> {
+      var t = new Thread(r, "startup");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+    Platform.exit();
+  }
+
+  @Benchmark
+  public Object onFxThread() {
+    return start(false);
+  }
+
+  @Benchmark
+  public Object inBackground() {
+    return start(true);
+  }
+
+  /** from the start on the FX thread until the main pane is attached */
+  private Object start(boolean background) {
+    Bus<ApiResponse, ApiRequest> apiBus = silent();
+    Bus<LoginEvent, LoginRequest> loginBus = silent();
+    Bus<RootUIMessage, RootUIMessage> rootUiBus = new PipeBus<>();
+    var root = new CompletableFuture<RootPane>();
+    Platform.runLater(() -> {
+      try {
+        root.complete(background
+          ? new RootPane(apiBus, loginBus, rootUiBus, pool)
+          : new RootPane(apiBus, loginBus, rootUiBus));
+      } catch (RuntimeException e) {
+        root.completeExceptionally(e);
+      }
+    });
+    var pane = root.join();
+    pane.ready().join();
+    return pane;
+  }
+
+  private static <In, Out> Bus<In, Out> silent() {
+    PublishSubject<In> in = PublishSubject.create();
+    return new Bus<In, Out>() {
+      @Override public Observable<In> in() { return in; }
+      @Override public Consumer<Out> out() { return r -> {}; }
+    };
+  }
+
+}
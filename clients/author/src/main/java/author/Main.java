@@ -3,12 +3,22 @@ package author;
 import javafx.application.Application;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
 
 import author.util.*;
 import author.bus.HttpApiBus;
+import author.bus.TransportSettings;
 import author.panes.RootPane;
+import author.panes.DiagnosticsPane;
 import author.messages.RootUIMessage;
 
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import javax.management.ObjectName;
+
 import lombok.val;
 
 @lombok.extern.slf4j.Slf4j
@@ -17,17 +27,24 @@ public class Main extends Application {
   private PreviewServer previewServer;
 
   @Override public void start(Stage stage) throws Exception {
+    val started = System.nanoTime();
     if (getParameters().getUnnamed().isEmpty()) {
       System.err.println("Server URL not specified");
       System.exit(1);
     }
     val baseUrl = getParameters().getUnnamed().get(0);
     val loginBus = new TempLoginBus();
+    if (getParameters().getNamed().containsKey("pulse-budget"))
+      FxDispatcher.shared.setBudget(
+        Duration.ofMillis(Long.parseLong(getParameters().getNamed().get("pulse-budget"))));
+    if (getParameters().getNamed().containsKey("stall-threshold"))
+      FxMonitor.shared.setThresholdMillis(Long.parseLong(getParameters().getNamed().get("stall-threshold")));
     val rootUiBus = new PipeBus<RootUIMessage>();
     val apiBus = new HttpApiBus(
       baseUrl,
       loginBus,
-      rootUiBus.out()
+      rootUiBus.out(),
+      transportSettings(getParameters().getNamed())
     );
 
 
@@ -44,13 +61,73 @@ public class Main extends Application {
     });
 
 
-    val rootPane = new RootPane(apiBus, loginBus, rootUiBus);
+    // the main pane is parsed and built while the login pane is shown
+    val rootPane = new RootPane(apiBus, loginBus, rootUiBus, ForkJoinPool.commonPool());
     
     Scene scene = new Scene(rootPane, 1000, 700);
     scene.getStylesheets().add("/author/common.css");
+    ManagementFactory.getPlatformMBeanServer()
+      .registerMBean(apiBus.metrics(), new ObjectName("author:type=HttpApiBus"));
+    ManagementFactory.getPlatformMBeanServer()
+      .registerMBean(FxMonitor.shared, new ObjectName("author:type=FxMonitor"));
+    FxMonitor.shared.watch(scene);
+    scene.setOnKeyPressed(e -> {
+      if (e.getCode() == KeyCode.F12)
+        showDiagnostics(apiBus);
+    });
     stage.setScene(scene);
     stage.setTitle("Quizzly::author");
     stage.show();
+    FxMonitor.shared.untilNextPulse(scene, "first frame", started);
+    rootPane.ready().thenRun(() ->
+      FxMonitor.shared.untilNextPulse(scene, "first interactive frame", started));
+  }
+
+  private Stage diagnostics;
+
+  private void showDiagnostics(HttpApiBus apiBus) {
+    if (diagnostics == null) {
+      diagnostics = new Stage();
+      diagnostics.setTitle("Quizzly::author diagnostics");
+      diagnostics.setScene(new Scene(new DiagnosticsPane(apiBus.metrics()), 1100, 400));
+    } else
+      ((DiagnosticsPane) diagnostics.getScene().getRoot()).refresh();
+    diagnostics.show();
+    diagnostics.toFront();
+  }
+
+  /**
+   * Reads transport overrides from named parameters, e.g.
+   * {@code --http-version=HTTP_1_1 --threads=POOLED --pool-size=8
+   * --connect-timeout=3 --request-timeout=20 --max-streams=50 --batch-window=0 --retries=0
+   * --wire-format=CBOR --compress-threshold=0 --push-reconnect=0}
+   * (timeouts and push reconnect in seconds, batch window in milliseconds).
+   */
+  private static TransportSettings transportSettings(Map<String, String> named) {
+    var settings = TransportSettings.DEFAULT.withBatchWindow(Duration.ofMillis(40));
+    if (named.containsKey("http-version"))
+      settings = settings.withVersion(HttpClient.Version.valueOf(named.get("http-version")));
+    if (named.containsKey("threads"))
+      settings = settings.withThreads(TransportSettings.Threads.valueOf(named.get("threads")));
+    if (named.containsKey("pool-size"))
+      settings = settings.withPoolSize(Integer.parseInt(named.get("pool-size")));
+    if (named.containsKey("connect-timeout"))
+      settings = settings.withConnectTimeout(Duration.ofSeconds(Long.parseLong(named.get("connect-timeout"))));
+    if (named.containsKey("request-timeout"))
+      settings = settings.withRequestTimeout(Duration.ofSeconds(Long.parseLong(named.get("request-timeout"))));
+    if (named.containsKey("max-streams"))
+      settings = settings.withMaxConcurrentStreams(Integer.parseInt(named.get("max-streams")));
+    if (named.containsKey("batch-window"))
+      settings = settings.withBatchWindow(Duration.ofMillis(Long.parseLong(named.get("batch-window"))));
+    if (named.containsKey("retries"))
+      settings = settings.withRetries(Integer.parseInt(named.get("retries")));
+    if (named.containsKey("wire-format"))
+      settings = settings.withWireFormat(TransportSettings.WireFormat.valueOf(named.get("wire-format")));
+    if (named.containsKey("compress-threshold"))
+      settings = settings.withCompressThreshold(Integer.parseInt(named.get("compress-threshold")));
+    if (named.containsKey("push-reconnect"))
+      settings = settings.withPushReconnect(Duration.ofSeconds(Long.parseLong(named.get("push-reconnect"))));
+    return settings;
   }
 
   @Override public void stop() throws Exception {
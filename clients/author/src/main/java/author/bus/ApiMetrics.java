@@ -0,0 +1,153 @@
+package author.bus;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import lombok.val;
+
+/**
+ * Counts and latency histograms of api calls per call type and response status.
+ * Every call is split into phases:
+ * <ul>
+ * <li>send - from the request entering the bus till it is handed to the http client</li>
+ * <li>ttfb - till response status and headers arrive</li>
+ * <li>decode - reading and mapping the body to a response event</li>
+ * <li>delivery - waiting for the FX thread to publish the event</li>
+ * </ul>
+ */
+public class ApiMetrics implements ApiMetricsMXBean {
+
+  public enum Phase { SEND, TTFB, DECODE, DELIVERY }
+
+  /** status of calls that failed before getting a response */
+  public static final int NO_STATUS = 0;
+
+  @lombok.Value
+  public static class Key {
+    String call;
+    int status;
+  }
+
+  @lombok.Value
+  public static class Row {
+    String call;
+    int status;
+    long count;
+    long errors;
+    /** median and 99th percentile per phase, in milliseconds */
+    Map<Phase, double[]> percentiles;
+  }
+
+  private static class Stats {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<Phase, Histogram> phases = new EnumMap<>(Phase.class);
+    {
+      for (Phase p : Phase.values())
+        phases.put(p, new ConcurrentHistogram(3));
+    }
+  }
+
+  /** Timestamps of one call, filled in as it goes through the bus */
+  public static class Sample {
+    private final String call;
+    private final long started = System.nanoTime();
+    private long sent;
+    private long received;
+    private long decoded;
+    private int status = NO_STATUS;
+    private boolean failed;
+
+    private Sample(String call) {
+      this.call = call;
+    }
+
+    void sent() {
+      sent = System.nanoTime();
+    }
+
+    void received(int status) {
+      this.status = status;
+      received = System.nanoTime();
+    }
+
+    void decoded() {
+      decoded = System.nanoTime();
+    }
+
+    void failed() {
+      failed = true;
+    }
+  }
+
+  private final Map<Key, Stats> stats = new ConcurrentHashMap<>();
+
+  public Sample start(String call) {
+    return new Sample(call);
+  }
+
+  /** Completes the sample once its event is delivered */
+  public void delivered(Sample sample) {
+    val now = System.nanoTime();
+    val s = stats.computeIfAbsent(new Key(sample.call, sample.status), k -> new Stats());
+    s.count.increment();
+    if (sample.failed || sample.status >= 400)
+      s.errors.increment();
+    record(s, Phase.SEND, sample.started, sample.sent);
+    record(s, Phase.TTFB, sample.sent, sample.received);
+    record(s, Phase.DECODE, sample.received, sample.decoded);
+    record(s, Phase.DELIVERY, sample.decoded, now);
+  }
+
+  private static void record(Stats s, Phase phase, long from, long to) {
+    if (from != 0 && to >= from)
+      s.phases.get(phase).recordValue(TimeUnit.NANOSECONDS.toMicros(to - from));
+  }
+
+  public List<Row> snapshot() {
+    val rows = new ArrayList<Row>();
+    stats.forEach((k, s) -> {
+      val percentiles = new EnumMap<Phase, double[]>(Phase.class);
+      s.phases.forEach((p, h) -> percentiles.put(p, new double[] {
+        h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0
+      }));
+      rows.add(new Row(k.call(), k.status(), s.count.sum(), s.errors.sum(), percentiles));
+    });
+    rows.sort(Comparator.comparing(Row::call).thenComparing(Row::status));
+    return rows;
+  }
+
+  @Override
+  public long getRequestCount() {
+    return stats.values().stream().mapToLong(s -> s.count.sum()).sum();
+  }
+
+  @Override
+  public long getErrorCount() {
+    return stats.values().stream().mapToLong(s -> s.errors.sum()).sum();
+  }
+
+  @Override
+  public String[] getCalls() {
+    return snapshot().stream().map(r -> {
+      val sb = new StringBuilder()
+        .append(r.call()).append(' ').append(r.status())
+        .append(" count=").append(r.count())
+        .append(" errors=").append(r.errors());
+      r.percentiles().forEach((p, v) -> sb.append(String.format(Locale.ROOT,
+        " %s=%.2f/%.2fms", p.name().toLowerCase(), v[0], v[1])));
+      return sb.toString();
+    }).toArray(String[]::new);
+  }
+
+  @Override
+  public void reset() {
+    stats.clear();
+  }
+
+}
@@ -0,0 +1,18 @@
+package author.bus;
+
+/**
+ * JMX view of {@link ApiMetrics}, registered by the application
+ * under {@code author:type=HttpApiBus}.
+ */
+public interface ApiMetricsMXBean {
+
+  long getRequestCount();
+
+  long getErrorCount();
+
+  /** one line per call and status with counts and latency percentiles */
+  String[] getCalls();
+
+  void reset();
+
+}
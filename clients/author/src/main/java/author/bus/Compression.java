@@ -0,0 +1,70 @@
+package author.bus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.val;
+
+/**
+ * Gzip of request and response bodies. Responses are inflated on first read,
+ * the body subscriber must not block on the stream while the client delivers it.
+ */
+class Compression {
+
+  static final String GZIP = "gzip";
+
+  static byte[] gzip(byte[] bytes) {
+    val out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (val gz = new GZIPOutputStream(out)) {
+      gz.write(bytes);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return out.toByteArray();
+  }
+
+  static HttpResponse.BodyHandler<InputStream> decoding() {
+    return info -> info.headers().firstValue("Content-Encoding")
+      .filter(GZIP::equalsIgnoreCase).isPresent()
+        ? HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(), Gunzip::new)
+        : HttpResponse.BodySubscribers.ofInputStream();
+  }
+
+  private static class Gunzip extends InputStream {
+
+    private final InputStream compressed;
+    private InputStream in;
+
+    Gunzip(InputStream compressed) {
+      this.compressed = compressed;
+    }
+
+    private InputStream in() throws IOException {
+      if (in == null)
+        in = new GZIPInputStream(compressed, 8192);
+      return in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return in().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return in().read(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      compressed.close();
+    }
+
+  }
+
+}
@@ -0,0 +1,109 @@
+package author.bus;
+
+import author.dtos.OutQuizPush;
+import author.events.ApiResponse;
+
+import static author.events.ApiResponse.*;
+
+import java.io.ByteArrayInputStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+import lombok.val;
+
+/**
+ * Server-sent quiz events of one connection, translated into the responses the
+ * panes already handle. Events the client has no counterpart for are skipped.
+ * A connection resuming after another one ended starts with a resync, as events
+ * in between are lost.
+ */
+@lombok.extern.slf4j.Slf4j
+class EventStream implements Flow.Subscriber<String> {
+
+  static final String MEDIA_TYPE = "text/event-stream";
+
+  private static final Json JSON = new Json(false);
+
+  private final Consumer<ApiResponse> out;
+  private final boolean resumed;
+  private Flow.Subscription subscription;
+  private volatile boolean closed;
+
+  EventStream(Consumer<ApiResponse> out, boolean resumed) {
+    this.out = out;
+    this.resumed = resumed;
+  }
+
+  HttpResponse.BodyHandler<Void> handler() {
+    return info -> info.statusCode() == 200
+      ? HttpResponse.BodySubscribers.fromLineSubscriber(this)
+      : HttpResponse.BodySubscribers.replacing(null);
+  }
+
+  void close() {
+    closed = true;
+    if (subscription != null)
+      subscription.cancel();
+  }
+
+  boolean closed() {
+    return closed;
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    this.subscription = subscription;
+    if (closed)
+      subscription.cancel();
+    else {
+      if (resumed)
+        out.accept(RESYNC);
+      subscription.request(Long.MAX_VALUE);
+    }
+  }
+
+  // events are one data line each, names and heartbeats are not needed
+  @Override
+  public void onNext(String line) {
+    if (!line.startsWith("data:"))
+      return;
+    try {
+      val push = JSON.read(new ByteArrayInputStream(
+        line.substring(5).getBytes(StandardCharsets.UTF_8)), OutQuizPush.class);
+      val event = translate(push);
+      if (event != null)
+        out.accept(event);
+    } catch (RuntimeException ex) {
+      log.warn("unreadable event {}", line, ex);
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    log.debug("event stream failed", throwable);
+  }
+
+  @Override
+  public void onComplete() {}
+
+  static ApiResponse translate(OutQuizPush p) {
+    switch (p.event()) {
+      case "readySet": return new ReadySet(p.quiz(), p.person());
+      case "readyUnset": return new ReadyUnset(p.quiz(), p.person());
+      case "approved": return new Approved(p.quiz(), p.person());
+      case "disapproved": return new Disapproved(p.quiz(), p.person());
+      case "authorAdded": return new AuthorAdded(p.quiz(), p.person());
+      case "authorRemoved": return new AuthorRemoved(p.quiz(), p.person());
+      case "inspectorAdded": return new InspectorAdded(p.quiz(), p.person());
+      case "inspectorRemoved": return new InspectorRemoved(p.quiz(), p.person());
+      case "sectionMoved": return p.scs() == null ? null : new SectionMoved(p.quiz(), p.scs());
+      case "sectionRemoved": return new SectionRemoved(p.quiz(), p.sc());
+      case "obsolete": return new GotObsolete(p.quiz());
+      case "resync": return RESYNC;
+      default: return null;
+    }
+  }
+
+}
@@ -6,6 +6,8 @@ import author.events.LoginEvent;
 import author.requests.LoginRequest;
 import author.dtos.*;
 import author.util.Bus;
+import author.util.FxDispatcher;
+import author.util.PersonRegistry;
 import author.messages.RootUIMessage;
 
 import static author.events.ApiResponse.*;
@@ -16,32 +18,31 @@ import io.reactivex.rxjava3.subjects.PublishSubject;
 
 import java.util.function.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import java.util.*;
-import java.util.regex.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 
-import javafx.application.Platform;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.introspect.DefaultAccessorNamingStrategy;
 
 import lombok.val;
 
 @lombok.extern.slf4j.Slf4j
 public class HttpApiBus implements Bus<ApiResponse, ApiRequest> {
 
-  private final ObjectMapper mapper = new ObjectMapper() {{
-    configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-    setAccessorNaming(new DefaultAccessorNamingStrategy.Provider().withGetterPrefix(""));
-  }};
+  private final Json json;
 
   private final String baseUrl;
   private final Bus<LoginEvent, LoginRequest> loginBus;
@@ -52,21 +53,46 @@ public class HttpApiBus implements Bus<ApiResponse, ApiRequest> {
   private author.dtos.OutPerson user;
 
   private final HttpClient client;
+  private final ApiMetrics metrics = new ApiMetrics();
+  private final TransportSettings transport;
+  private final RequestScheduler scheduler;
 
   public HttpApiBus(
     String baseUrl, 
     Bus<LoginEvent, LoginRequest> loginBus,
     Consumer<RootUIMessage> errorOut
+  ) {
+    this(baseUrl, loginBus, errorOut, TransportSettings.DEFAULT);
+  }
+
+  public HttpApiBus(
+    String baseUrl, 
+    Bus<LoginEvent, LoginRequest> loginBus,
+    Consumer<RootUIMessage> errorOut,
+    TransportSettings transport
   ) {
     this.baseUrl = baseUrl;
+    this.transport = transport;
+    this.json = new Json(transport.wireFormat(), true, PersonRegistry.shared);
+    this.scheduler = new RequestScheduler(transport.maxConcurrentStreams());
     this.loginBus = loginBus;
     this.errorOut = errorOut;
-    loginBus.in().ofType(LoginEvent.Success.class).subscribe(e -> user = e.user());
+    loginBus.in().ofType(LoginEvent.Success.class).subscribe(e -> {
+      user = e.user();
+      listen(user, false);
+    });
     loginBus.in().ofType(LoginEvent.LoggedOut.class)
       .filter(e -> user == null || user.equals(e.user()))
-      .subscribe(e -> user = null);
+      .subscribe(e -> {
+        user = null;
+        listen(null, false);
+        PersonRegistry.shared.clear();
+      });
 
     client = HttpClient.newBuilder()
+      .version(transport.version())
+      .executor(transport.executor())
+      .connectTimeout(transport.connectTimeout())
       .build();
   }
 
@@ -76,31 +102,126 @@ public class HttpApiBus implements Bus<ApiResponse, ApiRequest> {
     return r -> {
       if (user == null)
         errorOut.accept(RootUIMessage.NOT_LOGGED_IN);
-      else
-        process(r).thenAccept(resp -> {
+      else {
+        val batching = BATCHED.contains(r.getClass()) && !transport.batchWindow().isZero();
+        if (!batching)
+          flushBatch();
+        val pending = batching ? batched(r) : coalesced(r);
+        if (pending == null)
+          return;
+        pending.thenAccept(resp -> {
           log.debug("finalize processing {} {}", resp.apiResponse, resp.rootMessage);
-          Platform.runLater(() -> {
+          val events = new ArrayList<ApiResponse>();
+          for (ApiResponse e : events(resp.apiResponse))
+            if (!echoed(e, responses, pushes))
+              events.add(e);
+          FxDispatcher.shared.dispatch(() -> {
+            if (resp.sample != null)
+              metrics.delivered(resp.sample);
             errorOut.accept(resp.rootMessage);
-            if (resp.apiResponse != NO_RESPONSE) {
-              if (resp.apiResponse instanceof Multi) {
-                val m = (Multi) resp.apiResponse;
-                for (ApiResponse s : m.events) {
-                  subject.onNext(s);
-                }
-              } else {
-                subject.onNext(resp.apiResponse);
-              }
-            }
+            for (ApiResponse s : events)
+              subject.onNext(s);
           });
         });
+      }
     };
   }
 
+  private EventStream events;
+
+  /**
+   * Follows the server event stream while the user stays logged in, reopening it
+   * after a pause when it ends or fails; a refused stream is not retried. The panes
+   * fetch again what they show when the stream is reopened.
+   */
+  private synchronized void listen(OutPerson listener, boolean resumed) {
+    if (events != null)
+      events.close();
+    events = null;
+    if (listener == null || transport.pushReconnect().isZero())
+      return;
+    val stream = new EventStream(this::pushed, resumed);
+    events = stream;
+    val request = HttpRequest.newBuilder().uri(uri("/events"))
+      .header("Accept", EventStream.MEDIA_TYPE)
+      .header("p", listener.id())
+      .build();
+    client.sendAsync(request, stream.handler()).whenComplete((resp, ex) -> {
+      if (ex == null && resp.statusCode() != 200) {
+        log.warn("event stream refused with {}", resp.statusCode());
+        return;
+      }
+      if (!stream.closed())
+        CompletableFuture.delayedExecutor(transport.pushReconnect().toMillis(), TimeUnit.MILLISECONDS)
+          .execute(() -> {
+            synchronized (this) {
+              if (events == stream)
+                listen(listener, true);
+            }
+          });
+    });
+  }
+
+  private static final Set<Class<?>> PUSHED = Set.of(ReadySet.class, ReadyUnset.class,
+    Approved.class, Disapproved.class, AuthorAdded.class, AuthorRemoved.class,
+    InspectorAdded.class, InspectorRemoved.class, SectionMoved.class, SectionRemoved.class,
+    GotObsolete.class);
+
+  private static final long ECHO_TTL = TimeUnit.SECONDS.toNanos(10);
+
+  @lombok.Value
+  private static class Echo {
+    ApiResponse event;
+    long expires;
+  }
+
+  /**
+   * Events lately delivered as responses and as pushes. An edit of this client comes
+   * back both ways, in either order; the copy arriving second is dropped. An equal
+   * event of someone else within the window is dropped too, which changes nothing,
+   * as applying an event again leaves the same state.
+   */
+  private final Deque<Echo> responses = new ArrayDeque<>();
+  private final Deque<Echo> pushes = new ArrayDeque<>();
+
+  /** Whether the other side delivered the event lately; if not, this side remembers it */
+  private boolean echoed(ApiResponse event, Deque<Echo> mine, Deque<Echo> theirs) {
+    if (!PUSHED.contains(event.getClass()))
+      return false;
+    val now = System.nanoTime();
+    synchronized (responses) {
+      for (val side : List.of(mine, theirs))
+        while (!side.isEmpty() && side.peek().expires() - now < 0)
+          side.poll();
+      for (Iterator<Echo> i = theirs.iterator(); i.hasNext();)
+        if (i.next().event().equals(event)) {
+          i.remove();
+          return true;
+        }
+      mine.add(new Echo(event, now + ECHO_TTL));
+      return false;
+    }
+  }
+
+  private void pushed(ApiResponse event) {
+    if (!echoed(event, pushes, responses))
+      publish(event);
+  }
+
+  /** Delivers an event that came without a response */
+  private void publish(ApiResponse event) {
+    FxDispatcher.shared.dispatch(() -> subject.onNext(event));
+  }
+
   @Override
   public Observable<ApiResponse> in() {
     return subject;
   }
 
+  public ApiMetrics metrics() {
+    return metrics;
+  }
+
   private static final ApiResponse NO_RESPONSE = new ApiResponse() {
     @Override public String toString() { return "NO_RESPONSE"; }
   };
@@ -112,166 +233,521 @@ public class HttpApiBus implements Bus<ApiResponse, ApiRequest> {
     }
   }
 
+  /** Events the response consists of, in order */
+  private static List<ApiResponse> events(ApiResponse response) {
+    if (response == NO_RESPONSE)
+      return List.of();
+    if (!(response instanceof Multi))
+      return List.of(response);
+    val all = new ArrayList<ApiResponse>();
+    for (ApiResponse e : ((Multi) response).events)
+      all.addAll(events(e));
+    return all;
+  }
+
   private <T> T json(InputStream is, Class<T> clazz) {
-    try {
-      return mapper.readValue(is, clazz);
-    } catch(Exception ex) {
-      throw new RuntimeException(ex);
-    }
+    return json.read(is, clazz);
   }
 
   private byte[] toJson(Object content) {
+    return json.write(content);
+  }
+
+  private <T> List<T> jsonList(InputStream is, Class<T> clazz) {
+    return json.readList(is, clazz);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <Req extends ApiRequest> Call<Req> callFor(Req request) {
+    return (Call<Req>) dispatch.get(request.getClass());
+  }
+
+  HttpRequest buildRequest(ApiRequest request) {
+    val builder = callFor(request).request.apply(request)
+      .header("p", user.id())
+      .timeout(transport.requestTimeout());
+    if (!READS.contains(request.getClass()))
+      builder.header(IDEMPOTENCY_KEY, UUID.randomUUID().toString());
+    return builder.build();
+  }
+
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+  /**
+   * Sends the request again after a jittered exponential backoff when the
+   * connection fails or the server is unavailable; mutations carry an
+   * idempotency key, so the server applies them once.
+   */
+  private CompletableFuture<HttpResponse<InputStream>> send(HttpRequest request, int attempt) {
+    return client.sendAsync(request, Compression.decoding())
+      .handle((resp, ex) -> {
+        val cause = ex instanceof CompletionException ? ex.getCause() : ex;
+        val retriable = cause instanceof IOException ||
+          resp != null && resp.statusCode() >= 502 && resp.statusCode() <= 504;
+        if (!retriable || attempt >= transport.retries())
+          return ex == null
+            ? CompletableFuture.completedFuture(resp)
+            : CompletableFuture.<HttpResponse<InputStream>>failedFuture(cause);
+        if (resp != null)
+          close(resp.body());
+        val delay = backoff(transport.retryBackoff(), attempt);
+        log.warn("retrying {} {} in {}ms", request.method(), request.uri(), delay);
+        return CompletableFuture.runAsync(() -> {},
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+          .thenCompose(v -> send(request, attempt + 1));
+      })
+      .thenCompose(Function.identity());
+  }
+
+  private static final long MAX_BACKOFF = 60_000;
+
+  /** Random delay up to base * 2^attempt milliseconds, at least 1 and at most a minute */
+  static long backoff(java.time.Duration base, int attempt) {
+    long bound = Math.max(1, base.toMillis());
+    for (int i = 0; i < attempt && bound < MAX_BACKOFF; i++)
+      bound <<= 1;
+    return ThreadLocalRandom.current().nextLong(Math.min(bound, MAX_BACKOFF)) + 1;
+  }
+
+  private static void close(InputStream is) {
     try {
-      return mapper.writeValueAsBytes(content);
-    } catch (Exception ex) {
-      throw new RuntimeException(ex);
+      is.close();
+    } catch (IOException ignore) {}
+  }
+
+  private static String pageQuery(GetPage page) {
+    val q = page.query();
+    val params = new StringBuilder("limit=").append(q.limit()).append("&sort=").append(q.sort());
+    BiConsumer<String, Object> param = (name, value) -> {
+      if (value != null)
+        params.append('&').append(name).append('=')
+          .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+    };
+    param.accept("after", page.after());
+    param.accept("state", q.state());
+    param.accept("obsolete", q.obsolete());
+    param.accept("member", q.member());
+    if (q.descending())
+      params.append("&desc=true");
+    return params.toString();
+  }
+
+  private static final int CACHE_SIZE = 64;
+
+  @lombok.AllArgsConstructor
+  private static class Cached {
+    private String etag;
+    private Resp resp;
+  }
+
+  /** Last validated reads per user and URI, replayed when the server answers 304 */
+  private final Map<String, Cached> cache = Collections.synchronizedMap(
+    new LinkedHashMap<String, Cached>(16, 0.75f, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+        return size() > CACHE_SIZE;
+      }
+    });
+
+  private String cacheKey(HttpRequest request) {
+    return user.id() + " " + request.uri();
+  }
+
+  private HttpRequest conditional(HttpRequest request) {
+    val cached = cache.get(cacheKey(request));
+    if (cached == null)
+      return request;
+    return HttpRequest.newBuilder(request, (n, v) -> true)
+      .header("If-None-Match", cached.etag)
+      .build();
+  }
+
+  private static final Set<Class<?>> READS =
+    Set.of(REFRESH_LIST.getClass(), GET_STAFF.getClass(), GetQuiz.class, LoadSection.class,
+      GetPage.class);
+
+  private static final String SYNC_TOKEN = "Sync-Token";
+
+  /** Version of the quiz list each user has seen, as reported by the server */
+  private final Map<String, Long> syncTokens = new ConcurrentHashMap<>();
+
+  private long syncToken() {
+    return syncTokens.getOrDefault(user.id(), -1L);
+  }
+
+  private final Map<List<Object>, CompletableFuture<Resp>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Identical reads issued while one is already in flight are dropped, so only
+   * the first of them reaches the server and publishes a response.
+   * Returns null for a dropped request.
+   */
+  private CompletableFuture<Resp> coalesced(ApiRequest request) {
+    if (!READS.contains(request.getClass()))
+      return process(request);
+    val key = List.<Object>of(user.id(), request);
+    val pending = new CompletableFuture<Resp>();
+    if (inFlight.putIfAbsent(key, pending) != null) {
+      log.debug("coalesced {}", request);
+      return null;
     }
+    process(request).whenComplete((resp, ex) -> {
+      inFlight.remove(key);
+      if (ex != null)
+        pending.completeExceptionally(ex);
+      else
+        pending.complete(resp);
+    });
+    return pending;
   }
 
-  private <T> List<T> jsonList(InputStream is, Class<T> clazz) {
+  private static final Set<Class<?>> BATCHED = Set.of(MoveItem.class, MoveSection.class,
+    AddAuthor.class, RemoveAuthor.class, AddInspector.class, RemoveInspector.class);
+
+  private final List<ApiRequest> batch = new ArrayList<>();
+  private CompletableFuture<Resp> batchResult;
+
+  /**
+   * Edits arriving within the batch window go out together, the first of them
+   * carries the combined response. Returns null for the rest.
+   */
+  private CompletableFuture<Resp> batched(ApiRequest request) {
+    synchronized (batch) {
+      batch.add(request);
+      if (batch.size() > 1)
+        return null;
+      batchResult = new CompletableFuture<>();
+      CompletableFuture.delayedExecutor(transport.batchWindow().toMillis(), TimeUnit.MILLISECONDS)
+        .execute(this::flushBatch);
+      return batchResult;
+    }
+  }
+
+  private void flushBatch() {
+    List<ApiRequest> requests;
+    CompletableFuture<Resp> result;
+    synchronized (batch) {
+      requests = List.copyOf(batch);
+      result = batchResult;
+      batch.clear();
+    }
+    if (requests.isEmpty())
+      return;
+    CompletableFuture<Resp> sent;
     try {
-      CollectionType ctype = mapper.getTypeFactory()
-        .constructCollectionType(List.class, clazz);
-      return mapper.readValue(is, ctype);
-    } catch (Exception ex) {
-      throw new RuntimeException(ex);
+      sent = requests.size() == 1 ? process(requests.get(0)) : processBatch(requests);
+    } catch (RuntimeException e) {
+      // as when logged out within the window
+      sent = CompletableFuture.failedFuture(e);
+    }
+    sent.whenComplete((resp, ex) -> {
+      if (ex == null)
+        result.complete(resp);
+      else {
+        log.error("processing error", ex);
+        result.complete(withRollback(requests, new Resp(NO_RESPONSE, new RootUIMessage.ProcessingError(ex))));
+      }
+    });
+  }
+
+  /** Requests on the same quiz or section are sent one after another */
+  private static Set<String> entityKeys(ApiRequest r) {
+    if (r instanceof OwnSection) {
+      val o = (OwnSection) r;
+      return Set.of("quiz/" + o.quizId(), "section/" + o.sc());
+    } else if (r instanceof ApiRequest.WithQuizId)
+      return Set.of("quiz/" + ((ApiRequest.WithQuizId) r).quizId());
+    else if (r instanceof ApiRequest.WithSectionSC)
+      return Set.of("section/" + ((ApiRequest.WithSectionSC) r).sectionSC());
+    else if (r instanceof GetQuiz)
+      return Set.of("quiz/" + ((GetQuiz) r).id());
+    else if (r instanceof Create)
+      return Set.of("quiz/" + ((Create) r).id());
+    else if (r instanceof DischargeSection)
+      return Set.of("section/" + ((DischargeSection) r).sc());
+    else
+      return Set.of();
+  }
+
+  private static InBatchCommand batchCommand(ApiRequest r) {
+    if (r instanceof MoveItem) {
+      val m = (MoveItem) r;
+      return new InBatchCommand("moveItem", null, m.sectionSC(), m.sc(), null, m.up());
+    } else if (r instanceof MoveSection) {
+      val m = (MoveSection) r;
+      return new InBatchCommand("moveSection", m.quizId(), m.sc(), null, null, m.up());
+    } else if (r instanceof AddAuthor) {
+      val a = (AddAuthor) r;
+      return new InBatchCommand("addAuthor", a.quizId(), null, null, a.personId(), null);
+    } else if (r instanceof RemoveAuthor) {
+      val a = (RemoveAuthor) r;
+      return new InBatchCommand("removeAuthor", a.quizId(), null, null, a.personId(), null);
+    } else if (r instanceof AddInspector) {
+      val i = (AddInspector) r;
+      return new InBatchCommand("addInspector", i.quizId(), null, null, i.personId(), null);
+    } else {
+      val i = (RemoveInspector) r;
+      return new InBatchCommand("removeInspector", i.quizId(), null, null, i.personId(), null);
+    }
+  }
+
+  private CompletableFuture<Resp> processBatch(List<ApiRequest> requests) {
+    val commands = new ArrayList<InBatchCommand>();
+    for (ApiRequest r : requests)
+      commands.add(batchCommand(r));
+    val httpRequest = withBody(reqBuilder("/batch"), "POST", commands)
+      .header("p", user.id())
+      .header(IDEMPOTENCY_KEY, UUID.randomUUID().toString())
+      .timeout(transport.requestTimeout())
+      .build();
+    val keys = new HashSet<String>();
+    for (ApiRequest r : requests)
+      keys.addAll(entityKeys(r));
+    val sample = metrics.start("Batch");
+    return scheduler.submit(keys, RequestScheduler.Priority.WRITE, () -> {
+        sample.sent();
+        return send(httpRequest, 0);
+      })
+      .thenApply(resp -> {
+        sample.received(resp.statusCode());
+        if (resp.statusCode() != 200)
+          return withRollback(requests, failed(requests, resp.statusCode(), resp.body()));
+        val results = jsonList(resp.body(), OutBatchResult.class);
+        if (results.size() != requests.size())
+          throw new RuntimeException("batch of " + requests.size() + " commands got " +
+            results.size() + " results");
+        val events = new ArrayList<ApiResponse>();
+        RootUIMessage message = RootUIMessage.CLEAR;
+        for (int i = 0; i < requests.size(); i++) {
+          val request = requests.get(i);
+          val result = results.get(i);
+          val body = result.body() == null ? new byte[0] : toJson(result.body());
+          val single = respond(callFor(request), request, result.status(),
+            new ByteArrayInputStream(body));
+          if (single.apiResponse != NO_RESPONSE)
+            events.add(single.apiResponse);
+          if (message == RootUIMessage.CLEAR)
+            message = single.rootMessage;
+        }
+        return new Resp(new Multi(events.toArray(new ApiResponse[0])), message);
+      })
+      .exceptionally(ex -> {
+        log.error("processing error", ex);
+        sample.failed();
+        return withRollback(requests, new Resp(NO_RESPONSE, new RootUIMessage.ProcessingError(ex)));
+      })
+      .thenApply(resp -> {
+        sample.decoded();
+        return resp.sampled(sample);
+      });
+  }
+
+  private <Req extends ApiRequest> Resp respond(Call<Req> call, Req request, int status, InputStream body) {
+    if (status == call.status) {
+      log.debug("found resp mapper for {} {}", status, request);
+      return withConfirmation(request, call.response.apply(request, body));
+    }
+    return withRollback(List.of(request), failed(request, status, body));
+  }
+
+  private static final Set<Class<?>> OPTIMISTIC = Set.of(MoveItem.class, RemoveItem.class,
+    MoveSection.class, RemoveSection.class,
+    AddAuthor.class, RemoveAuthor.class, AddInspector.class, RemoveInspector.class);
+
+  /** Panes wait for these reads and fetch again after a failure */
+  private static final Set<Class<?>> AWAITED = Set.of(GetPage.class);
+
+  /** Panes undo optimistic edits on failure and may fetch awaited reads again */
+  private static Resp withRollback(List<ApiRequest> requests, Resp resp) {
+    val failures = requests.stream()
+      .filter(r -> OPTIMISTIC.contains(r.getClass()) || AWAITED.contains(r.getClass()))
+      .map(RequestFailed::new)
+      .toArray(ApiResponse[]::new);
+    if (failures.length == 0)
+      return resp;
+    return new Resp(failures.length == 1 ? failures[0] : new Multi(failures), resp.rootMessage);
+  }
+
+  /** Panes drop what they kept to undo an edit once it is confirmed */
+  private static Resp withConfirmation(ApiRequest request, Resp resp) {
+    if (!OPTIMISTIC.contains(request.getClass()))
+      return resp;
+    return new Resp(new Multi(resp.apiResponse, new RequestConfirmed(request)), resp.rootMessage);
+  }
+
+  private Resp failed(Object request, int status, InputStream body) {
+    switch (status) {
+      case 401:
+        return new Resp(NO_RESPONSE, RootUIMessage.ACCESS_DENIED);
+      case 422:
+        return new Resp(NO_RESPONSE, new RootUIMessage.ApiError(json(body, OutError.class)));
+      default:
+        log.warn("unprocessed status code {} for {}", status, request);
+        return Resp.clear(NO_RESPONSE);
     }
   }
 
-  @SuppressWarnings("unchecked")
   private <Req extends ApiRequest> CompletableFuture<Resp> process(Req request) {
-    return calls.stream().filter(c -> c.matcher.test(request)).findAny()
-      .map(call -> (Call<Req>) call)
-      .map(call -> {
-        return client.sendAsync(
-            call.request.apply(request).header("p", user.id()).build(), 
-            HttpResponse.BodyHandlers.ofInputStream()
-          ).thenApply(resp -> {
-            val fun = Optional.ofNullable(call.responses.get(resp.statusCode()))
-              .map(f -> {
-                log.debug("found resp mapper for {} {}", resp.statusCode(), request);
-                return f;
-              })
-              .orElse((req, is) -> {
-                switch (resp.statusCode()) {
-                  case 401:
-                    return new Resp(NO_RESPONSE, RootUIMessage.ACCESS_DENIED);
-                  case 422:
-                    return new Resp(NO_RESPONSE, new RootUIMessage.ApiError(json(is, OutError.class)));
-                  default:
-                    log.warn("unprocessed status code {} for {}", resp.statusCode(), request);
-                    return Resp.clear(NO_RESPONSE);
-                }
-              });
-            return fun.apply(request, resp.body());
-          })
-          .exceptionally(ex -> {
-            log.error("processing error", ex);
-            return new Resp(NO_RESPONSE, new RootUIMessage.ProcessingError(ex));
-          });
+    val call = callFor(request);
+    if (call == null) {
+      log.warn("call for {} not declared", request);
+      return CompletableFuture.completedFuture(Resp.clear(NO_RESPONSE));
+    }
+    val cacheable = READS.contains(request.getClass());
+    val sample = metrics.start(request.getClass().isAnonymousClass()
+      ? request.toString()
+      : request.getClass().getSimpleName());
+    val priority = cacheable ? RequestScheduler.Priority.READ : RequestScheduler.Priority.WRITE;
+    return scheduler.submit(entityKeys(request), priority, () -> {
+        sample.sent();
+        val httpRequest = buildRequest(request);
+        return send(cacheable ? conditional(httpRequest) : httpRequest, 0);
+      })
+      .thenApply(resp -> {
+        sample.received(resp.statusCode());
+        resp.headers().firstValue(SYNC_TOKEN).ifPresent(token ->
+          syncTokens.put(user.id(), Long.parseLong(token)));
+        if (cacheable && resp.statusCode() == 304) {
+          val cached = cache.get(cacheKey(resp.request()));
+          if (cached != null)
+            return cached.resp;
+          log.warn("not modified without cached response for {}", request);
+          return Resp.clear(NO_RESPONSE);
+        }
+        val result = respond(call, request, resp.statusCode(), resp.body());
+        if (cacheable && resp.statusCode() == call.status)
+          resp.headers().firstValue("ETag").ifPresent(etag ->
+            cache.put(cacheKey(resp.request()), new Cached(etag, result)));
+        return result;
       })
-      .orElseGet(() -> {
-        log.warn("call for {} not declared", request);
-        return CompletableFuture.completedFuture(Resp.clear(NO_RESPONSE));
+      .exceptionally(ex -> {
+        log.error("processing error", ex);
+        sample.failed();
+        return withRollback(List.of(request),
+          new Resp(NO_RESPONSE, new RootUIMessage.ProcessingError(ex)));
+      })
+      .thenApply(resp -> {
+        sample.decoded();
+        return resp.sampled(sample);
       });
   }
 
-  private static final Pattern pathPattern = Pattern.compile("\\{[^}]*}");
+  private static final Map<String, String[]> templates = new ConcurrentHashMap<>();
 
-  private URI uri(String path, Object... segments) {
-    val matcher = pathPattern.matcher(path);
-    val sb = new StringBuilder();
-    int i = 0;
-    while (matcher.find())
-      matcher.appendReplacement(sb, segments[i++].toString());
-    matcher.appendTail(sb);
-    return URI.create(baseUrl + sb.toString());
+  URI uri(String path, Object... segments) {
+    val parts = templates.computeIfAbsent(path, p -> p.split("\\{[^}]*}", -1));
+    val sb = new StringBuilder(baseUrl).append(parts[0]);
+    for (int i = 1; i < parts.length; i++)
+      sb.append(segments[i - 1]).append(parts[i]);
+    return URI.create(sb.toString());
   }
 
   private HttpRequest.Builder reqBuilder(String path, Object... segments) {
-    return HttpRequest.newBuilder().uri(uri(path, segments));
+    return HttpRequest.newBuilder().uri(uri(path, segments))
+      .header("Accept", json.mediaType())
+      .header("Accept-Encoding", Compression.GZIP);
+  }
+
+  /** Bodies from the compression threshold up are sent gzipped */
+  private HttpRequest.Builder withBody(HttpRequest.Builder builder, String method, Object content) {
+    byte[] bytes = toJson(content);
+    builder.header("content-type", json.mediaType());
+    val threshold = transport.compressThreshold();
+    if (threshold > 0 && bytes.length >= threshold) {
+      bytes = Compression.gzip(bytes);
+      builder.header("Content-Encoding", Compression.GZIP);
+    }
+    return builder.method(method, HttpRequest.BodyPublishers.ofByteArray(bytes));
   }
 
   private List<Call<?>> calls = List.of(
 
     new Call<ApiRequest>(
-      r -> r == GET_LIST,
-      r -> reqBuilder("/quiz").GET(),
-      Map.of(200, (r, is) -> Resp.clear(new QuizList(jsonList(is, OutQuizListed.class))))
+      REFRESH_LIST.getClass(),
+      r -> reqBuilder("/quiz?since={}", syncToken()).GET(),
+      200, (r, is) -> Resp.clear(new QuizListDelta(jsonList(is, OutQuizListed.class)))
     ),
 
-    new Call<GetQuiz>(
-      r -> r instanceof GetQuiz,
-      r -> reqBuilder("/quiz/{}", r.id()).GET(),
-      Map.of(200, (r, is) -> Resp.clear(new FullQuiz(json(is, OutFullQuiz.class))))
+    new Call<>(
+      GetPage.class,
+      r -> reqBuilder("/quiz?{}", pageQuery(r)).GET(),
+      200, (r, is) -> {
+        val page = json(is, OutQuizPage.class);
+        return Resp.clear(new QuizPage(r.query(), r.after(), page.list(), page.next()));
+      }
     ),
 
-    new Call<Create>(
-      r -> r instanceof Create,
-      r -> reqBuilder("/quiz").header("content-type", "application/json")
-        .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(new InCreateQuiz(
-          r.id(), r.title(), "", 30, r.authors(), r.inspectors())))),
-      Map.of(
-        200, (r, is) -> {
-          val details = json(is, OutCreateDetails.class);
-          return Resp.clear(new QuizAdded(new OutQuizListed(r.id(), r.title(), false,
-            user, details.authors(), details.inspectors(), "Composing")));
-        }
-      )
+    new Call<>(
+      GetQuiz.class,
+      r -> reqBuilder("/quiz/{}?summary=true", r.id()).GET(),
+      200, (r, is) -> Resp.clear(new FullQuiz(json(is, OutFullQuiz.class)))
+    ),
+
+    new Call<>(
+      LoadSection.class,
+      r -> reqBuilder("/quiz/{}/sections/{}", r.quizId(), r.sc()).GET(),
+      200, (r, is) -> Resp.clear(new SectionLoaded(r.quizId(), json(is, OutSection.class)))
     ),
 
-    new Call<UpdateQuiz>(
-      r -> r instanceof UpdateQuiz,
-      r -> reqBuilder("/quiz/{}", r.quizId()).header("content-type", "application/json")
-        .PUT(HttpRequest.BodyPublishers.ofByteArray(toJson(new InUpdateQuiz(
-          r.title(), r.intro(), r.recommendedLength())))),
-      Map.of(204, (r, is) -> Resp.info("Quiz updated", NO_RESPONSE))
+    new Call<>(
+      Create.class,
+      r -> withBody(reqBuilder("/quiz"), "POST", new InCreateQuiz(
+          r.id(), r.title(), "", 30, r.authors(), r.inspectors())),
+      200, (r, is) -> {
+        val details = json(is, OutCreateDetails.class);
+        return Resp.clear(new QuizAdded(new OutQuizListed(r.id(), r.title(), false,
+          user, details.authors(), details.inspectors(), "Composing")));
+      }
+    ),
+
+    new Call<>(
+      UpdateQuiz.class,
+      r -> withBody(reqBuilder("/quiz/{}", r.quizId()), "PUT", new InUpdateQuiz(
+          r.title(), r.intro(), r.recommendedLength())),
+      204, (r, is) -> Resp.info("Quiz updated", NO_RESPONSE)
     ),
 
     new Call<ApiRequest>(
-      r -> r == GET_STAFF,
+      GET_STAFF.getClass(),
       r -> reqBuilder("/staff").GET(),
-      Map.of(200, (r, is) -> Resp.clear(new PersonList(jsonList(is, OutPerson.class))))
+      200, (r, is) -> Resp.clear(new PersonList(jsonList(is, OutPerson.class)))
     ),
 
-    new Call<SetObsolete>(
-      r -> r instanceof SetObsolete,
+    new Call<>(
+      SetObsolete.class,
       r -> reqBuilder("/quiz/{}", r.quizId()).DELETE(),
-      Map.of(204, (r, is) -> Resp.clear(new GotObsolete(r.quizId())))
+      204, (r, is) -> Resp.clear(new GotObsolete(r.quizId()))
     ),
 
-    new Call<AddAuthor>(
-      r -> r instanceof AddAuthor,
+    new Call<>(
+      AddAuthor.class,
       r -> reqBuilder("/quiz/{}/authors/{}", r.quizId(), r.personId())
         .method("PATCH", HttpRequest.BodyPublishers.noBody()),
-      Map.of(204, (r, is) -> Resp.clear(new AuthorAdded(r.quizId(), r.personId())))
+      204, (r, is) -> Resp.clear(new AuthorAdded(r.quizId(), r.personId()))
     ),
 
-    new Call<RemoveAuthor>(
-      r -> r instanceof RemoveAuthor,
+    new Call<>(
+      RemoveAuthor.class,
       r -> reqBuilder("/quiz/{}/authors/{}", r.quizId(), r.personId()).DELETE(),
-      Map.of(204, (r, is) -> Resp.clear(new AuthorRemoved(r.quizId(), r.personId())))
+      204, (r, is) -> Resp.clear(new AuthorRemoved(r.quizId(), r.personId()))
     ),
 
-    new Call<AddInspector>(
-      r -> r instanceof AddInspector,
+    new Call<>(
+      AddInspector.class,
       r -> reqBuilder("/quiz/{}/inspectors/{}", r.quizId(), r.personId())
         .method("PATCH", HttpRequest.BodyPublishers.noBody()),
-      Map.of(204, (r, is) -> Resp.clear(new InspectorAdded(r.quizId(), r.personId())))
+      204, (r, is) -> Resp.clear(new InspectorAdded(r.quizId(), r.personId()))
     ),
 
-    new Call<RemoveInspector>(
-      r -> r instanceof RemoveInspector,
+    new Call<>(
+      RemoveInspector.class,
       r -> reqBuilder("/quiz/{}/inspectors/{}", r.quizId(), r.personId()).DELETE(),
-      Map.of(204, (r, is) -> Resp.clear(new InspectorRemoved(r.quizId(), r.personId())))
+      204, (r, is) -> Resp.clear(new InspectorRemoved(r.quizId(), r.personId()))
     ),
 
-    new Call<CreateSection>(
-      r -> r instanceof CreateSection,
-      r -> reqBuilder("/quiz/{}", r.quizId())
-        .header("content-type", "application/json")
-        .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(new InCreateSection(r.title())))),
-      Map.of(200, (r, is) -> {
+    new Call<>(
+      CreateSection.class,
+      r -> withBody(reqBuilder("/quiz/{}", r.quizId()), "POST", new InCreateSection(r.title())),
+      200, (r, is) -> {
         String sc = null;
         try {
           sc = new String(is.readAllBytes());
@@ -283,103 +759,110 @@ public class HttpApiBus implements Bus<ApiResponse, ApiRequest> {
           new SectionCreated(r.quizId(), section),
           new SectionOwned(r.quizId(), section)
         ));
-      })
+      }
     ),
 
-    new Call<MoveSection>(
-      r -> r instanceof MoveSection,
+    new Call<>(
+      MoveSection.class,
       r -> reqBuilder("/section/{}?qid={}&up={}", r.sc(), r.quizId(), String.valueOf(r.up()))
         .method("PATCH", HttpRequest.BodyPublishers.noBody()),
-      Map.of(200, (r, is) -> Resp.clear(new SectionMoved(r.quizId(), json(is, OutStrList.class).list())))
+      200, (r, is) -> Resp.clear(new SectionMoved(r.quizId(), json(is, OutStrList.class).list()))
     ),
 
-    new Call<RemoveSection>(
-      r -> r instanceof RemoveSection,
+    new Call<>(
+      RemoveSection.class,
       r -> reqBuilder("/section/{}?qid={}", r.sc(), r.quizId()).DELETE(),
-      Map.of(204, (r, is) -> Resp.clear(new SectionRemoved(r.quizId(), r.sc())))
+      204, (r, is) -> Resp.clear(new SectionRemoved(r.quizId(), r.sc()))
     ),
 
-    new Call<SetReady>(
-      r -> r instanceof SetReady,
+    new Call<>(
+      SetReady.class,
       r -> reqBuilder("/quiz/{}/ready", r.quizId())
         .method("PATCH", HttpRequest.BodyPublishers.noBody()),
-      Map.of(204, (r, is) -> Resp.clear(new ReadySet(r.quizId(), user.id())))
+      204, (r, is) -> Resp.clear(new ReadySet(r.quizId(), user.id()))
     ),
 
-    new Call<UnsetReady>(
-      r -> r instanceof UnsetReady,
+    new Call<>(
+      UnsetReady.class,
       r -> reqBuilder("/quiz/{}/ready", r.quizId()).DELETE(),
-      Map.of(204, (r, is) -> Resp.clear(new ReadyUnset(r.quizId(), user.id())))
+      204, (r, is) -> Resp.clear(new ReadyUnset(r.quizId(), user.id()))
     ),
 
-    new Call<Approve>(
-      r -> r instanceof Approve,
+    new Call<>(
+      Approve.class,
       r -> reqBuilder("/quiz/{}/resolve", r.quizId())
         .method("PATCH", HttpRequest.BodyPublishers.noBody()),
-      Map.of(204, (r, is) -> Resp.clear(new Approved(r.quizId(), user.id())))
+      204, (r, is) -> Resp.clear(new Approved(r.quizId(), user.id()))
     ),
 
-    new Call<Disapprove>(
-      r -> r instanceof Disapprove,
+    new Call<>(
+      Disapprove.class,
       r -> reqBuilder("/quiz/{}/resolve", r.quizId()).DELETE(),
-      Map.of(204, (r, is) -> Resp.clear(new Disapproved(r.quizId(), user.id())))
+      204, (r, is) -> Resp.clear(new Disapproved(r.quizId(), user.id()))
     ),
 
-    new Call<UpdateSection>(
-      r -> r instanceof UpdateSection,
-      r -> reqBuilder("/section/{}", r.sectionSC())
-        .header("content-type", "application/json")
-        .PUT(HttpRequest.BodyPublishers.ofByteArray(toJson(new InUpdateSection(r.title(), r.intro())))),
-      Map.of(204, (r, is) -> Resp.info("Section updated", NO_RESPONSE))
+    new Call<>(
+      UpdateSection.class,
+      r -> withBody(reqBuilder("/section/{}", r.sectionSC()), "PUT",
+        new InUpdateSection(r.title(), r.intro())),
+      204, (r, is) -> Resp.info("Section updated", NO_RESPONSE)
     ),
 
-    new Call<OwnSection>(
-      r -> r instanceof OwnSection,
+    new Call<>(
+      OwnSection.class,
       r -> reqBuilder("/section/{}?qid={}", r.sc(), r.quizId()).GET(),
-      Map.of(200, (r, is) -> Resp.clear(new SectionOwned(r.quizId(), json(is, OutSection.class))))
+      200, (r, is) -> Resp.clear(new SectionOwned(r.quizId(), json(is, OutSection.class)))
     ),
 
-    new Call<DischargeSection>(
-      r -> r instanceof DischargeSection,
+    new Call<>(
+      DischargeSection.class,
       r -> reqBuilder("/section/{}", r.sc())
         .POST(HttpRequest.BodyPublishers.noBody()),
-      Map.of(204, (r, is) -> Resp.clear(new SectionDischarged(r.sc())))
+      204, (r, is) -> Resp.clear(new SectionDischarged(r.sc()))
     ),
 
-    new Call<AddItem>(
-      r -> r instanceof AddItem,
+    new Call<>(
+      AddItem.class,
       r -> reqBuilder("/section/{}/items", r.sectionSC())
         .method("PATCH", HttpRequest.BodyPublishers.noBody()),
-      Map.of(200, (r, is) -> Resp.clear(new ItemAdded(r.sectionSC(), json(is, String.class))))
+      200, (r, is) -> Resp.clear(new ItemAdded(r.sectionSC(), json(is, String.class)))
     ),
 
-    new Call<RemoveItem>(
-      r -> r instanceof RemoveItem,
+    new Call<>(
+      RemoveItem.class,
       r -> reqBuilder("/section/{}/items/{}", r.sectionSC(), r.sc()).DELETE(),
-      Map.of(204, (r, is) -> Resp.clear(new ItemRemoved(r.sectionSC(), r.sc())))
+      204, (r, is) -> Resp.clear(new ItemRemoved(r.sectionSC(), r.sc()))
     ),
 
-    new Call<MoveItem>(
-      r -> r instanceof MoveItem,
+    new Call<>(
+      MoveItem.class,
       r -> reqBuilder("/section/{}/items/{}?up={}", r.sectionSC(), r.sc(), String.valueOf(r.up()))
         .method("PATCH", HttpRequest.BodyPublishers.noBody()),
-      Map.of(200, (r, is) -> Resp.clear(new ItemMoved(r.sectionSC(), json(is, OutStrList.class).list())))
+      200, (r, is) -> Resp.clear(new ItemMoved(r.sectionSC(), json(is, OutStrList.class).list()))
     ),
 
-    new Call<SaveItem>(
-      r -> r instanceof SaveItem,
-      r -> reqBuilder("/section/{}/items", r.sectionSC())
-        .header("content-type", "application/json")
-        .PUT(HttpRequest.BodyPublishers.ofByteArray(toJson(r.item()))),
-      Map.of(204, (r, is) -> Resp.info("Item saved", NO_RESPONSE))
+    new Call<>(
+      SaveItem.class,
+      r -> withBody(reqBuilder("/section/{}/items", r.sectionSC()), "PUT", r.item()),
+      204, (r, is) -> Resp.info("Item saved", NO_RESPONSE)
     )
 
   );
 
+  private final Map<Class<?>, Call<?>> dispatch = calls.stream()
+    .collect(Collectors.toUnmodifiableMap(c -> c.type, c -> c));
+
   @lombok.AllArgsConstructor
   private static class Resp {
     private ApiResponse apiResponse;
     private RootUIMessage rootMessage;
+    private ApiMetrics.Sample sample;
+    Resp(ApiResponse apiResponse, RootUIMessage rootMessage) {
+      this(apiResponse, rootMessage, null);
+    }
+    Resp sampled(ApiMetrics.Sample sample) {
+      return new Resp(apiResponse, rootMessage, sample);
+    }
     static Resp info(String text, ApiResponse response) {
       return new Resp(response, new RootUIMessage.InfoMessage(text));
     }
@@ -390,9 +873,10 @@ public class HttpApiBus implements Bus<ApiResponse, ApiRequest> {
 
   @lombok.AllArgsConstructor
   private static class Call<Req extends ApiRequest> {
-    private Predicate<ApiRequest> matcher;
+    private Class<? extends Req> type;
     private Function<Req, HttpRequest.Builder> request;
-    private Map<Integer, BiFunction<Req, InputStream, Resp>> responses;
+    private int status;
+    private BiFunction<Req, InputStream, Resp> response;
   }
 
 }
@@ -0,0 +1,147 @@
+package author.bus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.CollectionType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.introspect.DefaultAccessorNamingStrategy;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import author.dtos.OutPerson;
+import author.util.PersonRegistry;
+
+import lombok.val;
+
+/**
+ * Body codec of the api bus, JSON or one of the binary formats Jackson reads with the
+ * same data binding: CBOR and Smile.
+ *
+ * Readers and writers are resolved once per type and reused, so a response does not pay
+ * for type construction and root (de)serializer lookup. Accelerated codecs register
+ * Jackson Blackbird, which replaces reflective accessors of the dtos with generated lambdas.
+ * Persons and sets of persons are interned in the given registry.
+ */
+class Json {
+
+  private final TransportSettings.WireFormat format;
+  private final ObjectMapper mapper;
+  private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+  private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+  private final Map<Class<?>, ObjectReader> listReaders = new ConcurrentHashMap<>();
+
+  Json(TransportSettings.WireFormat format, boolean accelerated, PersonRegistry registry) {
+    this.format = format;
+    switch (format) {
+      case CBOR: mapper = new ObjectMapper(new CBORFactory()); break;
+      case SMILE: mapper = new ObjectMapper(new SmileFactory()); break;
+      default: mapper = new ObjectMapper();
+    }
+    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    mapper.setAccessorNaming(new DefaultAccessorNamingStrategy.Provider().withGetterPrefix(""));
+    mapper.registerModule(interning(registry));
+    if (accelerated)
+      mapper.registerModule(new BlackbirdModule());
+  }
+
+  private static SimpleModule interning(PersonRegistry registry) {
+    return new SimpleModule().setDeserializerModifier(new BeanDeserializerModifier() {
+      @Override
+      public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config,
+          BeanDescription desc, JsonDeserializer<?> deserializer) {
+        if (desc.getBeanClass() != OutPerson.class)
+          return deserializer;
+        return new Interning(deserializer, v -> registry.intern((OutPerson) v));
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public JsonDeserializer<?> modifyCollectionDeserializer(DeserializationConfig config,
+          CollectionType type, BeanDescription desc, JsonDeserializer<?> deserializer) {
+        if (!Set.class.isAssignableFrom(type.getRawClass()) ||
+            type.getContentType().getRawClass() != OutPerson.class)
+          return deserializer;
+        return new Interning(deserializer, v -> registry.members((Set<OutPerson>) v));
+      }
+    });
+  }
+
+  /** Hands every decoded value to the registry */
+  private static class Interning extends DelegatingDeserializer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UnaryOperator<Object> canonical;
+
+    Interning(JsonDeserializer<?> delegate, UnaryOperator<Object> canonical) {
+      super(delegate);
+      this.canonical = canonical;
+    }
+
+    @Override
+    protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> delegate) {
+      return new Interning(delegate, canonical);
+    }
+
+    @Override
+    public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      return canonical.apply(super.deserialize(p, ctxt));
+    }
+
+  }
+
+  Json(boolean accelerated) {
+    this(TransportSettings.WireFormat.JSON, accelerated, PersonRegistry.shared);
+  }
+
+  /** value for Accept and Content-Type headers */
+  String mediaType() {
+    return format.mediaType;
+  }
+
+  <T> T read(InputStream is, Class<T> clazz) {
+    try {
+      return readers.computeIfAbsent(clazz, mapper::readerFor).readValue(is);
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  <T> List<T> readList(InputStream is, Class<T> clazz) {
+    try {
+      val reader = listReaders.computeIfAbsent(clazz, c ->
+        mapper.readerFor(mapper.getTypeFactory().constructCollectionType(List.class, c)));
+      return reader.readValue(is);
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  byte[] write(Object content) {
+    try {
+      return writers.computeIfAbsent(content.getClass(), mapper::writerFor).writeValueAsBytes(content);
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+}
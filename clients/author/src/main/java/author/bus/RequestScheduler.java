@@ -0,0 +1,106 @@
+package author.bus;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import lombok.val;
+
+/**
+ * Runs async tasks with a bound on the number in flight.
+ * Tasks sharing an entity key run one at a time in submission order,
+ * otherwise reads are started ahead of writes.
+ */
+class RequestScheduler {
+
+  enum Priority { READ, WRITE }
+
+  @lombok.AllArgsConstructor
+  private static class Task {
+    private Set<String> keys;
+    private Priority priority;
+    private Runnable start;
+  }
+
+  private final int maxInFlight;
+  private final List<Task> waiting = new ArrayList<>();
+  private final Set<String> busy = new HashSet<>();
+  private int running;
+
+  RequestScheduler(int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  <T> CompletableFuture<T> submit(
+    Set<String> keys,
+    Priority priority,
+    Supplier<CompletableFuture<T>> task
+  ) {
+    val result = new CompletableFuture<T>();
+    val queued = new Task(keys, priority, null);
+    queued.start = () -> {
+      CompletableFuture<T> started;
+      try {
+        started = task.get();
+      } catch (RuntimeException ex) {
+        started = CompletableFuture.failedFuture(ex);
+      }
+      started.whenComplete((v, ex) -> {
+        done(queued);
+        if (ex != null)
+          result.completeExceptionally(ex);
+        else
+          result.complete(v);
+      });
+    };
+    synchronized (this) {
+      waiting.add(queued);
+    }
+    drain();
+    return result;
+  }
+
+  private void drain() {
+    Task next;
+    while ((next = next()) != null)
+      next.start.run();
+  }
+
+  private void done(Task task) {
+    synchronized (this) {
+      running--;
+      busy.removeAll(task.keys);
+    }
+    drain();
+  }
+
+  /**
+   * Picks the first runnable read, or the first runnable write if there is none.
+   * A task is runnable when no running or earlier waiting task shares its keys.
+   */
+  private synchronized Task next() {
+    if (running >= maxInFlight)
+      return null;
+    val blocked = new HashSet<>(busy);
+    Task write = null;
+    Task read = null;
+    for (Task t : waiting) {
+      if (Collections.disjoint(blocked, t.keys)) {
+        if (t.priority == Priority.READ) {
+          read = t;
+          break;
+        } else if (write == null)
+          write = t;
+      }
+      blocked.addAll(t.keys);
+    }
+    val picked = read != null ? read : write;
+    if (picked != null) {
+      waiting.remove(picked);
+      busy.addAll(picked.keys);
+      running++;
+    }
+    return picked;
+  }
+
+}
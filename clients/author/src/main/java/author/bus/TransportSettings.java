@@ -0,0 +1,78 @@
+package author.bus;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.*;
+
+import lombok.val;
+
+/**
+ * Transport configuration of {@link HttpApiBus}: protocol version, the executor
+ * the http client runs its handlers on, timeouts and the maximum number of
+ * requests allowed in flight at once, the batching window for edits, retries,
+ * the representation and compression of request and response bodies and
+ * reconnection of the server event stream.
+ */
+@lombok.Value @lombok.With
+public class TransportSettings {
+
+  public enum Threads { VIRTUAL, POOLED }
+
+  public enum WireFormat {
+    JSON("application/json"),
+    CBOR("application/cbor"),
+    SMILE("application/x-jackson-smile");
+
+    final String mediaType;
+
+    WireFormat(String mediaType) {
+      this.mediaType = mediaType;
+    }
+  }
+
+  HttpClient.Version version;
+  Threads threads;
+  int poolSize;
+  Duration connectTimeout;
+  Duration requestTimeout;
+  int maxConcurrentStreams;
+  /** how long reorder and membership edits are held to go out as one batch, zero disables */
+  Duration batchWindow;
+  /** attempts after the first one for connection failures and 502-504 responses */
+  int retries;
+  /**
+   * base of the exponential backoff, the actual delay is random up to base * 2^attempt
+   * milliseconds, from 1ms to a minute whatever the base
+   */
+  Duration retryBackoff;
+  WireFormat wireFormat;
+  /** request bodies of at least this many bytes are sent gzipped, zero disables */
+  int compressThreshold;
+  /** pause before the server event stream is reopened, zero disables the stream */
+  Duration pushReconnect;
+
+  public static final TransportSettings DEFAULT = new TransportSettings(
+    HttpClient.Version.HTTP_2, Threads.VIRTUAL, 4,
+    Duration.ofSeconds(5), Duration.ofSeconds(30), 100, Duration.ZERO,
+    3, Duration.ofMillis(200), WireFormat.JSON, 1024, Duration.ofSeconds(3)
+  );
+
+  /**
+   * Virtual threads executor is looked up reflectively so the client still runs
+   * on JVMs without them, falling back to a bounded pool of daemon threads.
+   */
+  ExecutorService executor() {
+    if (threads == Threads.VIRTUAL) {
+      try {
+        return (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (Exception ignore) {}
+    }
+    return Executors.newFixedThreadPool(poolSize, r -> {
+      val thread = new Thread(r, "http-api-bus");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+}
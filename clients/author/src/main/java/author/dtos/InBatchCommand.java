@@ -0,0 +1,18 @@
+package author.dtos;
+
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@lombok.Value
+@JsonIgnoreProperties({"hashCode", "toString"})
+public class InBatchCommand {
+
+    String op;
+    String quiz;
+    String sc;
+    String item;
+    String person;
+    Boolean up;
+
+
+}
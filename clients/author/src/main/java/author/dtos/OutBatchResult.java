@@ -0,0 +1,11 @@
+package author.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+
+@lombok.Value
+@JsonIgnoreProperties({"hashCode", "toString"})
+public class OutBatchResult {
+  int status;
+  JsonNode body;
+}
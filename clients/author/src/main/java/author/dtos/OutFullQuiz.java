@@ -31,6 +31,7 @@ public class OutFullQuiz {
     @lombok.With
     Set<OutPerson> disapprovals;
     Boolean obsolete;
+    @lombok.With
     List<OutSection> sections;
     @lombok.With
     String state;
@@ -0,0 +1,12 @@
+package author.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@lombok.Value
+@JsonIgnoreProperties({"hashCode", "toString"})
+public class OutQuizPage {
+  List<OutQuizListed> list;
+  String next;
+}
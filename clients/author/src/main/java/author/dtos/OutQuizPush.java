@@ -0,0 +1,15 @@
+package author.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@lombok.Value
+@JsonIgnoreProperties({"hashCode", "toString"})
+public class OutQuizPush {
+  String quiz;
+  String event;
+  String person;
+  String sc;
+  List<String> scs;
+}
@@ -2,17 +2,37 @@ package author.events;
 
 import java.util.List;
 import author.dtos.*;
+import author.requests.ApiRequest;
 import lombok.Value;
 
 public interface ApiResponse {
+  /** pushed events may have been missed, what is shown is to be fetched again */
+  ApiResponse RESYNC = new ApiResponse() {
+    @Override public String toString() { return "RESYNC"; }
+  };
+  /** Page of the quiz list, next is null on the last one */
+  @Value
+  class QuizPage implements ApiResponse {
+    ApiRequest.ListQuery query;
+    String after;
+    List<OutQuizListed> list;
+    String next;
+  }
+  /** Quizzes created or changed since the previous fetch, to be merged by id */
   @Value
-  class QuizList implements ApiResponse {
+  class QuizListDelta implements ApiResponse {
     List<OutQuizListed> list;
   }
   @Value
   class FullQuiz implements ApiResponse {
     OutFullQuiz quiz;
   }
+  /** section of the quiz with its items */
+  @Value
+  class SectionLoaded implements WithQuizId {
+    String quizId;
+    OutSection section;
+  }
   @Value
   class QuizAdded implements ApiResponse {
     OutQuizListed quiz;
@@ -111,5 +131,15 @@ public interface ApiResponse {
   class SectionDischarged implements ApiResponse {
     String sc;
   }
+  /** an optimistically applied edit was not accepted by the server, or an awaited read failed */
+  @Value
+  class RequestFailed implements ApiResponse {
+    ApiRequest request;
+  }
+  /** an optimistically applied edit was accepted, after the events it resulted in */
+  @Value
+  class RequestConfirmed implements ApiResponse {
+    ApiRequest request;
+  }
 }
 
@@ -0,0 +1,70 @@
+package author.panes;
+
+import javafx.scene.layout.*;
+import javafx.scene.control.*;
+import javafx.geometry.*;
+
+import java.util.Locale;
+
+import author.bus.ApiMetrics;
+import author.util.Factories;
+
+import lombok.val;
+
+/**
+ * Table of api call metrics: counts, errors and median / 99th percentile
+ * of every call phase in milliseconds.
+ */
+public class DiagnosticsPane extends BorderPane {
+
+  private final ApiMetrics metrics;
+  private final TableView<ApiMetrics.Row> table = new TableView<>();
+
+  public DiagnosticsPane(ApiMetrics metrics) {
+    this.metrics = metrics;
+    setPadding(new Insets(10));
+
+    val call = new TableColumn<ApiMetrics.Row, String>("Call");
+    call.setCellValueFactory(Factories.tableCellFactory(ApiMetrics.Row::call));
+    val status = new TableColumn<ApiMetrics.Row, String>("Status");
+    status.setCellValueFactory(Factories.tableCellFactory(r ->
+      r.status() == ApiMetrics.NO_STATUS ? "-" : String.valueOf(r.status())));
+    val count = new TableColumn<ApiMetrics.Row, String>("Count");
+    count.setCellValueFactory(Factories.tableCellFactory(r -> String.valueOf(r.count())));
+    val errors = new TableColumn<ApiMetrics.Row, String>("Errors");
+    errors.setCellValueFactory(Factories.tableCellFactory(r -> String.valueOf(r.errors())));
+    table.getColumns().add(call);
+    table.getColumns().add(status);
+    table.getColumns().add(count);
+    table.getColumns().add(errors);
+    for (ApiMetrics.Phase phase : ApiMetrics.Phase.values()) {
+      val column = new TableColumn<ApiMetrics.Row, String>(
+        phase.name().toLowerCase() + " p50/p99");
+      column.setCellValueFactory(Factories.tableCellFactory(r -> {
+        val p = r.percentiles().get(phase);
+        return String.format(Locale.ROOT, "%.2f / %.2f", p[0], p[1]);
+      }));
+      table.getColumns().add(column);
+    }
+    table.setId("metrics");
+
+    val refresh = new Button("Refresh");
+    refresh.setOnAction(e -> refresh());
+    val reset = new Button("Reset");
+    reset.setOnAction(e -> {
+      metrics.reset();
+      refresh();
+    });
+    val buttons = new HBox(10, refresh, reset);
+    buttons.setPadding(new Insets(10, 0, 0, 0));
+
+    setCenter(table);
+    setBottom(buttons);
+    refresh();
+  }
+
+  public void refresh() {
+    table.getItems().setAll(metrics.snapshot());
+  }
+
+}
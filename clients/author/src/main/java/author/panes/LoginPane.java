@@ -15,6 +15,8 @@ import lombok.val;
 
 public class LoginPane extends VBox {
 
+  private final Label message = new Label();
+
   public LoginPane(Bus<LoginEvent, LoginRequest> loginBus) {
     super();
     setPadding(new Insets(20, 20, 20, 20));
@@ -24,7 +26,6 @@ public class LoginPane extends VBox {
     TextField username = new TextField();
     PasswordField password = new PasswordField();
     Button button = new Button("Login");
-    Label message = new Label();
     username.setId("username");
     username.setPromptText("Username");
     password.setId("password");
@@ -66,4 +67,10 @@ public class LoginPane extends VBox {
     
   }
 
+  /** tells that logging in is not possible, the pane is left disabled */
+  public void unavailable(String reason) {
+    message.setText(reason);
+    message.setStyle("-fx-text-fill:darkred");
+  }
+
 }
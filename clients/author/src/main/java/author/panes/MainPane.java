@@ -13,7 +13,9 @@ import java.util.ResourceBundle;
 import java.util.*;
 import java.util.stream.*;
 import java.util.function.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import author.dtos.*;
 import author.events.*;
@@ -27,6 +29,9 @@ import author.panes.quiz.QuizPane;
 import author.panes.section.SectionPane;
 
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableTransformer;
+
+import javafx.application.Platform;
 
 import lombok.val;
 
@@ -44,40 +49,85 @@ public class MainPane extends BorderPane {
 
   private Bus<MainUIMessage, MainUIMessage> uiBus;
 
+  /** The nested panes, which can be built off the FX thread until shown */
+  @lombok.Value
+  public static class Parts {
+    Bus<MainUIMessage, MainUIMessage> uiBus;
+    Node quizzes;
+    Node quizPane;
+    Node sectionPane;
+  }
+
+  /** Builds the nested panes on the executor in parallel */
+  public static CompletableFuture<Parts> parts(Bus<ApiResponse, ApiRequest> apiBus, Executor executor) {
+    Bus<MainUIMessage, MainUIMessage> uiBus = new PipeBus<>();
+    val quizzes = Quizzes.load(apiBus, executor);
+    val quizPane = CompletableFuture.supplyAsync(
+      () -> Factories.nodeWith(new QuizPane(apiBus, uiBus)), executor);
+    val sectionPane = CompletableFuture.supplyAsync(
+      () -> (Node) new SectionPane(apiBus, uiBus), executor);
+    return CompletableFuture.allOf(quizzes, quizPane, sectionPane)
+      .thenApply(v -> new Parts(uiBus, quizzes.join(), quizPane.join(), sectionPane.join()));
+  }
+
+  /**
+   * Main pane with the nested panes built on the executor, completed on the FX
+   * thread, where the rest of it is put together
+   */
+  public static CompletableFuture<MainPane> load(
+    Bus<ApiResponse, ApiRequest> apiBus,
+    Bus<LoginEvent, LoginRequest> loginBus,
+    Bus<RootUIMessage, RootUIMessage> rootUiBus,
+    Executor executor
+  ) {
+    return parts(apiBus, executor)
+      .thenApplyAsync(parts -> new MainPane(apiBus, loginBus, rootUiBus, parts), Platform::runLater);
+  }
+
   public MainPane(
     Bus<ApiResponse, ApiRequest> apiBus, 
     Bus<LoginEvent, LoginRequest> loginBus,
     Bus<RootUIMessage, RootUIMessage> rootUiBus
   ) {
-    this.uiBus = new PipeBus<>();
+    this(apiBus, loginBus, rootUiBus, parts(apiBus, Runnable::run).join());
+  }
+
+  public MainPane(
+    Bus<ApiResponse, ApiRequest> apiBus, 
+    Bus<LoginEvent, LoginRequest> loginBus,
+    Bus<RootUIMessage, RootUIMessage> rootUiBus,
+    Parts parts
+  ) {
+    this.uiBus = parts.uiBus();
 
     getStylesheets().add("/author/common.css");
     
     Node topBar = initTop();
-    quizzes = Quizzes.create(apiBus);
+    quizzes = parts.quizzes();
     quizzes.setId("quizzes");
-    quizPane = Factories.nodeWith(new QuizPane(apiBus, uiBus));
+    quizPane = parts.quizPane();
     quizPane.setId("quizPane");
-    sectionPane = new SectionPane(apiBus, uiBus);
+    sectionPane = parts.sectionPane();
 
     setTop(topBar);
 
-    loginBus.in().ofType(LoginEvent.Success.class).subscribe(e -> {
+    loginBus.in().ofType(LoginEvent.Success.class).compose(timed()).subscribe(e -> {
       userName.setText(e.user().name());
       apiBus.out().accept(ApiRequest.GET_STAFF);
-      apiBus.out().accept(ApiRequest.GET_LIST);
+      apiBus.out().accept(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null));
       uiBus.out().accept(new MainUIMessage.ActingAs(e.user()));
       setCenter(quizzes);
     });
 
-    apiBus.in().ofType(ApiResponse.FullQuiz.class).subscribe(e -> {
+    apiBus.in().ofType(ApiResponse.FullQuiz.class).compose(timed()).subscribe(e -> {
+      currentQuiz = e.quiz().id();
       uiBus.out().accept(new MainUIMessage.SetQuiz(e.quiz()));
       setCenter(quizPane);
     });
 
     logout.setOnAction(e -> {
       if (getCenter() == sectionPane) {
-        apiBus.in().ofType(ApiResponse.SectionDischarged.class).take(1).subscribe(e1 ->
+        apiBus.in().ofType(ApiResponse.SectionDischarged.class).take(1).compose(timed()).subscribe(e1 ->
           loginBus.out().accept(LoginRequest.LOGOUT)
         );
         apiBus.out().accept(new ApiRequest.DischargeSection(currentSC));
@@ -92,23 +142,39 @@ public class MainPane extends BorderPane {
       }
     });
 
-    uiBus.in().ofType(MainUIMessage.EditSection.class).subscribe(e -> {
+    uiBus.in().ofType(MainUIMessage.EditSection.class).compose(timed()).subscribe(e -> {
       apiBus.out().accept(new ApiRequest.OwnSection(e.quizId(), e.sc()));
     });
-    apiBus.in().ofType(ApiResponse.SectionOwned.class).subscribe(e -> {
+    apiBus.in().ofType(ApiResponse.SectionOwned.class).compose(timed()).subscribe(e -> {
       currentSC = e.section().sc();
       setCenter(sectionPane);
     });
-    apiBus.in().ofType(ApiResponse.SectionDischarged.class).subscribe(e -> setCenter(quizPane));
+    apiBus.in().ofType(ApiResponse.SectionDischarged.class).compose(timed()).subscribe(e -> {
+      setCenter(quizPane);
+      if (staleQuiz) {
+        staleQuiz = false;
+        apiBus.out().accept(new ApiRequest.GetQuiz(currentQuiz));
+      }
+    });
+
+    // pushed events were missed: the list catches up, the open quiz is fetched again,
+    // once its section is left if one is being edited
+    apiBus.in().filter(e -> e == ApiResponse.RESYNC).compose(timed()).subscribe(e -> {
+      apiBus.out().accept(ApiRequest.REFRESH_LIST);
+      if (getCenter() == quizPane)
+        apiBus.out().accept(new ApiRequest.GetQuiz(currentQuiz));
+      else if (getCenter() == sectionPane)
+        staleQuiz = true;
+    });
 
-    rootUiBus.in().subscribe(e -> {
+    rootUiBus.in().compose(timed()).subscribe(e -> {
       String color = null;
       if (e instanceof RootUIMessage.Info) color = "darkgreen";
       else if (e instanceof RootUIMessage.Warn) color = "gold";
       else color = "darkred";
       message.setStyle("-fx-text-fill:" + color);
     });
-    rootUiBus.in().subscribe(e -> {
+    rootUiBus.in().compose(timed()).subscribe(e -> {
       if (e == RootUIMessage.NOT_LOGGED_IN)
         message.setText("Not logged in");
       else if (e == RootUIMessage.ACCESS_DENIED)
@@ -133,11 +199,18 @@ public class MainPane extends BorderPane {
         message.setText(((RootUIMessage.TextMessage) e).text());
     });
 
-    uiBus.in().ofType(MainUIMessage.PreviewQuiz.class).subscribe(e ->
+    uiBus.in().ofType(MainUIMessage.PreviewQuiz.class).compose(timed()).subscribe(e ->
       rootUiBus.out().accept(new RootUIMessage.PreviewQuiz(e.quizId())));
   }
 
   private String currentSC;
+  private String currentQuiz;
+  private boolean staleQuiz;
+
+  /** handlers run on the FX thread are timed as this pane's */
+  private static <T> ObservableTransformer<T, T> timed() {
+    return FxMonitor.shared.timed("MainPane");
+  }
 
   private Node initTop() {
     HBox topBar = new HBox();
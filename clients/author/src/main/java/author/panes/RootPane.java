@@ -1,5 +1,6 @@
 package author.panes;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -13,6 +14,8 @@ import java.util.ResourceBundle;
 import java.util.*;
 import java.util.stream.*;
 import java.util.function.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import author.dtos.*;
 import author.events.*;
@@ -28,25 +31,72 @@ import static org.pdfsam.rxjavafx.observables.JavaFxObservable.*;
 
 import lombok.val;
 
+@lombok.extern.slf4j.Slf4j
 public class RootPane extends BorderPane {
 
+  private final CompletableFuture<Void> ready;
+
   public RootPane(
     Bus<ApiResponse, ApiRequest> apiBus, 
     Bus<LoginEvent, LoginRequest> loginBus,
     Bus<RootUIMessage, RootUIMessage> rootUiBus
   ) {
+    this(
+      loginBus,
+      CompletableFuture.completedFuture(new MainPane(apiBus, loginBus, rootUiBus)),
+      () -> new MainPane(apiBus, loginBus, rootUiBus));
+  }
+
+  /**
+   * Root pane showing the login pane at once while the main pane is built on the
+   * executor; logging in is possible once it is attached, so its handlers see the
+   * login. If building it there fails, it is built again on the FX thread
+   */
+  public RootPane(
+    Bus<ApiResponse, ApiRequest> apiBus, 
+    Bus<LoginEvent, LoginRequest> loginBus,
+    Bus<RootUIMessage, RootUIMessage> rootUiBus,
+    Executor executor
+  ) {
+    this(
+      loginBus,
+      MainPane.load(apiBus, loginBus, rootUiBus, executor),
+      () -> new MainPane(apiBus, loginBus, rootUiBus));
+  }
+
+  RootPane(
+    Bus<LoginEvent, LoginRequest> loginBus,
+    CompletableFuture<MainPane> mainPane,
+    Supplier<MainPane> onFxThread
+  ) {
 
     val loginPane = new LoginPane(loginBus);
     loginPane.setId("loginPane");
     loginPane.setMaxSize(300, 250);
-    val mainPane = new MainPane(apiBus, loginBus, rootUiBus);
-    mainPane.setId("mainPane");
-
-    loginBus.in().ofType(LoginEvent.Success.class).subscribe(e -> setCenter(mainPane));
-    loginBus.in().ofType(LoginEvent.LoggedOut.class).subscribe(e -> setCenter(loginPane));
-
     setCenter(loginPane);
+
+    loginPane.setDisable(!mainPane.isDone());
+    ready = mainPane
+      .exceptionallyAsync(e -> {
+        log.warn("cannot build main pane in the background, building it on the FX thread", e);
+        return onFxThread.get();
+      }, Platform::runLater)
+      .thenAccept(main -> {
+        main.setId("mainPane");
+        loginBus.in().ofType(LoginEvent.Success.class).subscribe(e -> setCenter(main));
+        loginBus.in().ofType(LoginEvent.LoggedOut.class).subscribe(e -> setCenter(loginPane));
+        loginPane.setDisable(false);
+      });
+    ready.exceptionally(e -> {
+      log.error("cannot build main pane", e);
+      Platform.runLater(() -> loginPane.unavailable("Cannot start, please restart the application"));
+      return null;
+    });
   }
 
+  /** completes on the FX thread once the main pane is attached */
+  public CompletableFuture<Void> ready() {
+    return ready;
+  }
 
 }
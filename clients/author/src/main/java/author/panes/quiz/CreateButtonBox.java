@@ -10,6 +10,8 @@ import author.events.ApiResponse;
 
 public class CreateButtonBox extends GridPane {
 
+  private static final String ANY_STATE = "Any state";
+
   private Bus<ApiResponse, ApiRequest> apiBus;
   private Bus<Quizzes.UIMessage, Quizzes.UIMessage> uiBus;
 
@@ -24,18 +26,32 @@ public class CreateButtonBox extends GridPane {
     create.setId("create");
     Button refresh = new Button("Refresh");
     refresh.setId("refresh");
+    ChoiceBox<String> state = new ChoiceBox<>();
+    state.setId("stateFilter");
+    state.getItems().addAll(ANY_STATE, "Composing", "Review", "Released");
+    state.setValue(ANY_STATE);
+    CheckBox hideObsolete = new CheckBox("Hide obsolete");
+    hideObsolete.setId("hideObsolete");
 
     setPadding(new Insets(10, 10, 10, 10));
     setHgap(10);
     ColumnConstraints rightcol = new ColumnConstraints();
     rightcol.setHgrow(Priority.ALWAYS);
-    getColumnConstraints().addAll(new ColumnConstraints(), rightcol);
+    getColumnConstraints().addAll(new ColumnConstraints(), new ColumnConstraints(),
+      new ColumnConstraints(), rightcol);
     add(create, 0, 0);
-    add(refresh, 1, 0);
+    add(state, 1, 0);
+    add(hideObsolete, 2, 0);
+    add(refresh, 3, 0);
     GridPane.setHalignment(refresh, HPos.RIGHT);
 
     create.setOnAction(e -> uiBus.out().accept(Quizzes.SHOW_CREATE_PANE));
-    refresh.setOnAction(e -> apiBus.out().accept(ApiRequest.GET_LIST));
+    refresh.setOnAction(e -> apiBus.out().accept(ApiRequest.REFRESH_LIST));
+    Runnable filter = () -> uiBus.out().accept(new Quizzes.FilterList(
+      ANY_STATE.equals(state.getValue()) ? null : state.getValue(),
+      hideObsolete.isSelected() ? Boolean.FALSE : null));
+    state.setOnAction(e -> filter.run());
+    hideObsolete.setOnAction(e -> filter.run());
 
   }
 
@@ -4,6 +4,7 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.*;
+import javafx.geometry.Orientation;
 
 import java.net.URL;
 import java.util.ResourceBundle;
@@ -18,6 +19,7 @@ import author.util.*;
 import author.util.Tuple.*;
 
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableTransformer;
 
 import lombok.val;
 
@@ -35,6 +37,11 @@ public class ListPane implements FxmlController {
     this.uiBus = uiBus;
   }
 
+  /** handlers run on the FX thread are timed as this pane's */
+  private static <T> ObservableTransformer<T, T> timed() {
+    return FxMonitor.shared.timed("ListPane");
+  }
+
   private Bus<ApiResponse, ApiRequest> apiBus;
   private Bus<Quizzes.UIMessage, Quizzes.UIMessage> uiBus;
 
@@ -43,12 +50,64 @@ public class ListPane implements FxmlController {
     return "/author/panes/quiz/list-pane.fxml";
   }
 
-  private final List<OutPerson> staff = new ArrayList<>();
+  private final Map<String, OutPerson> staff = new HashMap<>();
+  private final KeyedList<String, OutQuizListed> quizzes = new KeyedList<>(OutQuizListed::id);
+
+  /** order and filters of the rows shown, pages are fetched while scrolling down */
+  private ApiRequest.ListQuery query = ApiRequest.ListQuery.FIRST;
+  private String next;
+  private boolean loading;
+  /** queries of the first pages asked for here and not answered yet */
+  private final Set<ApiRequest.ListQuery> requested = new HashSet<>();
+
+  private void firstPage() {
+    next = null;
+    loading = true;
+    requested.add(query);
+    apiBus.out().accept(new ApiRequest.GetPage(query, null));
+  }
+
+  private void nextPage() {
+    if (next == null || loading)
+      return;
+    loading = true;
+    apiBus.out().accept(new ApiRequest.GetPage(query, next));
+  }
+
+  private ScrollBar scrollBar;
+
+  /** rows that fit the table leave nothing to scroll down, so the next page is fetched at once */
+  private final Runnable fill = () -> {
+    if (scrollBar != null && !scrollBar.isVisible())
+      nextPage();
+  };
+
+  /**
+   * Puts a changed quiz where the query orders it and drops one that no longer matches;
+   * a quiz ordered after the last row belongs to a page not fetched yet unless the last
+   * one is shown
+   */
+  private void place(OutQuizListed q) {
+    if (!query.matches(q)) {
+      quizzes.remove(q.id());
+      return;
+    }
+    val order = query.order();
+    val shown = quizzes.get(q.id());
+    if (shown != null && order.compare(shown, q) == 0) {
+      quizzes.put(q);
+      return;
+    }
+    quizzes.remove(q.id());
+    val at = -Collections.binarySearch(quizzes.items(), q, order) - 1;
+    if (at < quizzes.size() || next == null)
+      quizzes.add(at, q);
+  }
 
   @Override
   public void initialize(URL location, ResourceBundle resource) {
     
-      list.getItems().clear();
+      list.setItems(quizzes.items());
       val idFactory = Factories.tableCellFactory(OutQuizListed::id);
       link.setCellValueFactory(idFactory);
       link.setCellFactory(Factories.buttonTableCellFactory("pencil-bold", "goto-quiz", (column, id) ->
@@ -58,29 +117,94 @@ public class ListPane implements FxmlController {
       status.setCellValueFactory(Factories.tableCellFactory(OutQuizListed::state));
       obsolete.setCellValueFactory(Factories.tableCellFactory(q -> q.obsolete() ? "+" : ""));
       apiBus.in().ofType(ApiResponse.PersonList.class)
+        .compose(timed())
         .subscribe(l -> {
           staff.clear();
-          staff.addAll(l.list());
+          l.list().forEach(p -> staff.put(p.id(), p));
         });
-      apiBus.in().ofType(ApiResponse.QuizList.class)
-        .subscribe(l -> {
-          list.getItems().clear();
-          list.getItems().addAll(l.list());
+      apiBus.in().ofType(ApiResponse.QuizListDelta.class)
+        .compose(timed())
+        .subscribe(d -> d.list().forEach(this::place));
+
+      // pages of an earlier order or filter are stale; a first page not asked for
+      // here, as fetched on login, starts over with its query
+      apiBus.in().ofType(ApiResponse.QuizPage.class)
+        .compose(timed())
+        .subscribe(p -> {
+          if (p.after() == null && !requested.remove(p.query()) && requested.isEmpty())
+            query = p.query();
+          if (!p.query().equals(query))
+            return;
+          if (p.after() == null) {
+            quizzes.setAll(p.list());
+          } else if (p.after().equals(next)) {
+            quizzes.addAll(p.list());
+          } else {
+            return;
+          }
+          next = p.next();
+          loading = false;
+        });
+
+      apiBus.in().ofType(ApiResponse.RequestFailed.class)
+        .filter(e -> e.request() instanceof ApiRequest.GetPage)
+        .compose(timed())
+        .subscribe(e -> {
+          val r = (ApiRequest.GetPage) e.request();
+          if (r.after() == null)
+            requested.remove(r.query());
+          if (r.query().equals(query))
+            loading = false;
         });
 
+      uiBus.in().ofType(Quizzes.FilterList.class).compose(timed()).subscribe(f -> {
+        query = query.withState(f.state()).withObsolete(f.obsolete());
+        firstPage();
+      });
+
+      // the server sorts, by id or title, either way
+      list.setSortPolicy(t -> {
+        val order = list.getSortOrder();
+        val column = order.isEmpty() ? null : order.get(0);
+        val sort = column == title ? "title" : "id";
+        val descending = column != null && column.getSortType() == TableColumn.SortType.DESCENDING;
+        if (!sort.equals(query.sort()) || descending != query.descending()) {
+          query = query.withSort(sort).withDescending(descending);
+          firstPage();
+        }
+        return true;
+      });
+
+      list.skinProperty().addListener((o, ov, nv) -> {
+        for (Node n : list.lookupAll(".scroll-bar"))
+          if (n instanceof ScrollBar && ((ScrollBar) n).getOrientation() == Orientation.VERTICAL) {
+            val bar = (ScrollBar) n;
+            scrollBar = bar;
+            bar.valueProperty().addListener((ob, ovalue, value) -> {
+              if (value.doubleValue() >= bar.getMax() * 0.9)
+                nextPage();
+            });
+          }
+      });
+      list.sceneProperty().addListener((o, ov, nv) -> {
+        if (ov != null)
+          ov.removePostLayoutPulseListener(fill);
+        if (nv != null)
+          nv.addPostLayoutPulseListener(fill);
+      });
+
       list.getSelectionModel().selectedItemProperty().addListener((o, ov, nv) -> {
         uiBus.out().accept(new Quizzes.ShowQuiz(nv));
       });
       apiBus.in().ofType(ApiResponse.QuizAdded.class)
+        .compose(timed())
         .subscribe(q -> {
-          list.getItems().add(q.quiz());
-          list.getSelectionModel().select(q.quiz());
+          quizzes.put(q.quiz());
+          list.getSelectionModel().select(quizzes.indexOf(q.quiz().id()));
         });
 
       val withQuiz = apiBus.in().ofType(ApiResponse.WithQuizId.class)
-        .map(e -> list.getItems().stream()
-                    .filter(q -> q.id().equals(e.quizId())).findFirst()
-                    .map(q -> Tuple.of(e, q)))
+        .map(e -> Optional.ofNullable(quizzes.get(e.quizId())).map(q -> Tuple.of(e, q)))
         .filter(Optional::isPresent)
         .map(Optional::get);
       
@@ -88,16 +212,9 @@ public class ListPane implements FxmlController {
         .filter(wq -> wq._1() instanceof ApiResponse.GotObsolete)
         .map(wq -> Tuple.of(wq._2(), (UnaryOperator<OutQuizListed>) q -> q.withObsolete(true)));
 
-      BiFunction<Set<OutPerson>, OutPerson, Set<OutPerson>> remove = (set, pers) -> {
-        val nset = new HashSet<>(set);
-        nset.remove(pers);
-        return Collections.unmodifiableSet(nset);
-      };
-      BiFunction<Set<OutPerson>, OutPerson, Set<OutPerson>> add = (set, pers) -> {
-        val nset = new HashSet<>(set);
-        nset.add(pers);
-        return Collections.unmodifiableSet(nset);
-      };
+      // member sets stay interned, so quizzes with the same members keep sharing them
+      BiFunction<Set<OutPerson>, OutPerson, Set<OutPerson>> remove = PersonRegistry.shared::without;
+      BiFunction<Set<OutPerson>, OutPerson, Set<OutPerson>> add = PersonRegistry.shared::with;
 
       val addAuth = forPersonedType(ApiResponse.AuthorAdded.class, withQuiz,
         p -> q -> q.withAuthors(add.apply(q.authors(), p)));
@@ -108,10 +225,9 @@ public class ListPane implements FxmlController {
       val remInsp = forPersonedType(ApiResponse.InspectorRemoved.class, withQuiz,
         p -> q -> q.withInspectors(remove.apply(q.inspectors(), p)));
 
-      Observable.mergeArray(obsolete, addAuth, remAuth, addInsp, remInsp).subscribe(ft -> {
-        val idx = list.getItems().indexOf(ft._1());
-        list.getItems().set(idx, ft._2().apply(ft._1()));
-      });
+      Observable.mergeArray(obsolete, addAuth, remAuth, addInsp, remInsp)
+        .compose(FxMonitor.shared.timed("ListPane", "quiz change"))
+        .subscribe(ft -> quizzes.update(ft._1().id(), ft._2()));
 
 
   }
@@ -124,8 +240,7 @@ public class ListPane implements FxmlController {
           Function<OutPerson, UnaryOperator<OutQuizListed>> memberMod) {
     return withQuiz
       .filter(wq -> clazz.isInstance(wq._1()))
-      .map(wq -> staff.stream()
-              .filter(p -> p.id().equals(((Typ) wq._1()).personId())).findFirst()
+      .map(wq -> Optional.ofNullable(staff.get(((Typ) wq._1()).personId()))
           .map(p -> Tuple.of(wq._2(), memberMod.apply(p)))
           .orElse(Tuple.of(wq._2(), UnaryOperator.identity()))
       );
@@ -55,9 +55,9 @@ public class QuizFormPane implements FxmlController {
     val listCellFactory = Factories.buttonListCellFactory(OutPerson::name, "trash-bold", 
                 "remove-item", (list, p) -> {
         if (list == authors)
-          apiBus.out().accept(new ApiRequest.RemoveAuthor(current.id(), p.id()));
+          command(new ApiRequest.RemoveAuthor(current.id(), p.id()));
         else
-          apiBus.out().accept(new ApiRequest.RemoveInspector(current.id(), p.id()));
+          command(new ApiRequest.RemoveInspector(current.id(), p.id()));
       });
     authors.setCellFactory(listCellFactory);
     selectedAuthor.setButtonCell(comboCellFactory.call(null));
@@ -83,33 +83,44 @@ public class QuizFormPane implements FxmlController {
     apiBus.in().ofType(ApiResponse.AuthorAdded.class)
       .filter(s -> current != null)
       .filter(s -> current.id().equals(s.quizId()))
-      .subscribe(s -> {
-        selectedAuthor.getItems().stream().filter(a -> a.id().equals(s.personId())).findAny()
-          .ifPresent(authors.getItems()::add);
-      });
+      .subscribe(s -> include(authors, selectedAuthor, s.personId()));
 
     apiBus.in().ofType(ApiResponse.AuthorRemoved.class)
       .filter(s -> current != null)
       .filter(s -> current.id().equals(s.quizId()))
-      .subscribe(s -> authors.getItems().removeIf(a -> a.id().equals(s.personId())));
-    addAuthor.setOnAction(e -> apiBus.out().accept(
+      .subscribe(s -> exclude(authors, s.personId()));
+    addAuthor.setOnAction(e -> command(
       new ApiRequest.AddAuthor(current.id(), selectedAuthor.getValue().id())));
 
     apiBus.in().ofType(ApiResponse.InspectorAdded.class)
       .filter(s -> current != null)
       .filter(s -> current.id().equals(s.quizId()))
-      .subscribe(s -> {
-        selectedInspector.getItems().stream().filter(a -> a.id().equals(s.personId())).findAny()
-          .ifPresent(inspectors.getItems()::add);
-      });
+      .subscribe(s -> include(inspectors, selectedInspector, s.personId()));
 
     apiBus.in().ofType(ApiResponse.InspectorRemoved.class)
       .filter(s -> current != null)
       .filter(s -> current.id().equals(s.quizId()))
-      .subscribe(s -> inspectors.getItems().removeIf(a -> a.id().equals(s.personId())));
-    addInspector.setOnAction(e -> apiBus.out().accept(
+      .subscribe(s -> exclude(inspectors, s.personId()));
+    addInspector.setOnAction(e -> command(
       new ApiRequest.AddInspector(current.id(), selectedInspector.getValue().id())));
 
+    // membership edits are shown before the server confirms them,
+    // a rejected one is reverted by applying its inverse
+    apiBus.in().ofType(ApiResponse.RequestFailed.class)
+      .map(ApiResponse.RequestFailed::request)
+      .filter(r -> current != null)
+      .filter(r -> r instanceof ApiRequest.WithQuizId && current.id().equals(((ApiRequest.WithQuizId) r).quizId()))
+      .subscribe(r -> {
+        if (r instanceof ApiRequest.AddAuthor)
+          exclude(authors, ((ApiRequest.AddAuthor) r).personId());
+        else if (r instanceof ApiRequest.RemoveAuthor)
+          include(authors, selectedAuthor, ((ApiRequest.RemoveAuthor) r).personId());
+        else if (r instanceof ApiRequest.AddInspector)
+          exclude(inspectors, ((ApiRequest.AddInspector) r).personId());
+        else if (r instanceof ApiRequest.RemoveInspector)
+          include(inspectors, selectedInspector, ((ApiRequest.RemoveInspector) r).personId());
+      });
+
     apiBus.in().ofType(ApiResponse.GotObsolete.class)
       .filter(s -> current != null)
       .filter(s -> current.id().equals(s.quizId()))
@@ -120,6 +131,28 @@ public class QuizFormPane implements FxmlController {
 
   private OutQuizListed current = null;
 
+  private void command(ApiRequest request) {
+    if (request instanceof ApiRequest.AddAuthor)
+      include(authors, selectedAuthor, ((ApiRequest.AddAuthor) request).personId());
+    else if (request instanceof ApiRequest.RemoveAuthor)
+      exclude(authors, ((ApiRequest.RemoveAuthor) request).personId());
+    else if (request instanceof ApiRequest.AddInspector)
+      include(inspectors, selectedInspector, ((ApiRequest.AddInspector) request).personId());
+    else if (request instanceof ApiRequest.RemoveInspector)
+      exclude(inspectors, ((ApiRequest.RemoveInspector) request).personId());
+    apiBus.out().accept(request);
+  }
+
+  private void include(ListView<OutPerson> list, ComboBox<OutPerson> people, String personId) {
+    if (list.getItems().stream().noneMatch(p -> p.id().equals(personId)))
+      people.getItems().stream().filter(p -> p.id().equals(personId)).findAny()
+        .ifPresent(list.getItems()::add);
+  }
+
+  private void exclude(ListView<OutPerson> list, String personId) {
+    list.getItems().removeIf(p -> p.id().equals(personId));
+  }
+
   private void clear() {
     current = null;
     curatorName.setText("");
@@ -1,5 +1,10 @@
 package author.panes.quiz;
 
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.*;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -22,6 +27,7 @@ import author.util.*;
 import author.messages.*;
 
 import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableTransformer;
 import static org.pdfsam.rxjavafx.observables.JavaFxObservable.*;
 
 import lombok.val;
@@ -74,14 +80,27 @@ public class QuizPane implements FxmlController {
     this.uiBus = uiBus;
   }
 
-  private OutPerson user;
+  /** handlers run on the FX thread are timed as this pane's */
+  private static <T> ObservableTransformer<T, T> timed() {
+    return FxMonitor.shared.timed("QuizPane");
+  }
+
+  private final ObjectProperty<OutPerson> user = new SimpleObjectProperty<>();
   private OutFullQuiz quiz;
 
+  // parts of the current quiz the controls are bound to, an event changes its part only
+  private final StringProperty state = new SimpleStringProperty("");
+  private final ObservableSet<OutPerson> authors = FXCollections.observableSet();
+  private final ObservableSet<OutPerson> inspectors = FXCollections.observableSet();
+  private final ObservableSet<OutPerson> readinessSigns = FXCollections.observableSet();
+  private final ObservableSet<OutPerson> approvalSigns = FXCollections.observableSet();
+  private final ObservableSet<OutPerson> disapprovalSigns = FXCollections.observableSet();
+
   private void showCreateSection() {
-    if (user != null && quiz != null) {
+    if (user.get() != null && quiz != null) {
       quizPane.getChildren().remove(createSectionForm);
       quizPane.getChildren().remove(buttonBox);
-      if (quiz.state().equals("Composing") && quiz.authors().contains(user)) {
+      if (quiz.state().equals("Composing") && quiz.authors().contains(user.get())) {
         quizPane.getChildren().add(buttonBox);
       }
     }
@@ -89,11 +108,13 @@ public class QuizPane implements FxmlController {
 
   @Override
   public void initialize(URL location, ResourceBundle resources) {
-    uiBus.in().ofType(MainUIMessage.ActingAs.class).subscribe(e -> {
-      user = e.person();
+    uiBus.in().ofType(MainUIMessage.ActingAs.class).compose(timed()).subscribe(e -> {
+      user.set(PersonRegistry.shared.intern(e.person()));
       showCreateSection();
     });
-    uiBus.in().ofType(MainUIMessage.SetQuiz.class).subscribe(e -> {
+    uiBus.in().ofType(MainUIMessage.SetQuiz.class).compose(timed()).subscribe(e -> {
+      loaded.clear();
+      previewPending.clear();
       set(e.quiz());
       showCreateSection();
     });
@@ -107,14 +128,30 @@ public class QuizPane implements FxmlController {
     edit.setCellFactory(Factories.buttonTableCellFactory("pencil-bold", "edit-section", 
       (col, section) -> uiBus.out().accept(new MainUIMessage.EditSection(quiz.id(), section.sc()))));
     up.setCellFactory(Factories.buttonTableCellFactory("arrow-fat-line-up-bold", "section-up",
-      (col, section) -> apiBus.out().accept(new ApiRequest.MoveSection(quiz.id(), section.sc(), true))));
+      (col, section) -> command(new ApiRequest.MoveSection(quiz.id(), section.sc(), true))));
     down.setCellFactory(Factories.buttonTableCellFactory("arrow-fat-line-down-bold", "section-down",
-      (col, section) -> apiBus.out().accept(new ApiRequest.MoveSection(quiz.id(), section.sc(), false))));
+      (col, section) -> command(new ApiRequest.MoveSection(quiz.id(), section.sc(), false))));
     remove.setCellFactory(Factories.buttonTableCellFactory("trash-bold", "remove-section",
-      (col, section) -> apiBus.out().accept(new ApiRequest.RemoveSection(section.sc(), quiz.id()))));
+      (col, section) -> command(new ApiRequest.RemoveSection(section.sc(), quiz.id()))));
 
     sectionTitle.setCellValueFactory(Factories.tableCellFactory(OutSection::title));
 
+    status.textProperty().bind(state);
+    showMembers(readinessSigns, readiness, "check");
+    showMembers(approvalSigns, approvals, "check");
+    showMembers(disapprovalSigns, approvals, "uncheck");
+    val composing = state.isEqualTo("Composing")
+      .and(Bindings.createBooleanBinding(() -> authors.contains(user.get()), authors, user));
+    val reviewing = state.isEqualTo("Review")
+      .and(Bindings.createBooleanBinding(() -> inspectors.contains(user.get()), inspectors, user));
+    val signed = Bindings.createBooleanBinding(() -> readinessSigns.contains(user.get()),
+      readinessSigns, user);
+    saveChanges.disableProperty().bind(composing.not());
+    setReady.disableProperty().bind(composing.and(signed.not()).not());
+    unsetReady.disableProperty().bind(composing.and(signed).not());
+    approve.disableProperty().bind(reviewing.not());
+    disapprove.disableProperty().bind(reviewing.not());
+
     saveChanges.setOnAction(e -> {
       apiBus.out().accept(new ApiRequest.UpdateQuiz(
         quiz.id(),
@@ -124,8 +161,23 @@ public class QuizPane implements FxmlController {
       ));
     });
     preview.setOnAction(e -> {
-      uiBus.out().accept(new MainUIMessage.PreviewQuiz(quiz.id()));
+      val missing = sections.getItems().stream().map(OutSection::sc)
+        .filter(sc -> !loaded.contains(sc)).collect(Collectors.toSet());
+      if (missing.isEmpty())
+        uiBus.out().accept(new MainUIMessage.PreviewQuiz(quiz.id()));
+      else {
+        previewPending.addAll(missing);
+        missing.forEach(sc -> apiBus.out().accept(new ApiRequest.LoadSection(quiz.id(), sc)));
+      }
     });
+    apiBus.in().ofType(ApiResponse.SectionLoaded.class)
+      .filter(e -> quiz != null && e.quizId().equals(quiz.id()))
+      .compose(timed())
+      .subscribe(e -> {
+        loaded.add(e.section().sc());
+        if (previewPending.remove(e.section().sc()) && previewPending.isEmpty())
+          uiBus.out().accept(new MainUIMessage.PreviewQuiz(quiz.id()));
+      });
     setReady.setOnAction(e -> apiBus.out().accept(new ApiRequest.SetReady(quiz.id())));
     unsetReady.setOnAction(e -> apiBus.out().accept(new ApiRequest.UnsetReady(quiz.id())));
     approve.setOnAction(e -> apiBus.out().accept(new ApiRequest.Approve(quiz.id())));
@@ -148,110 +200,144 @@ public class QuizPane implements FxmlController {
     createSection.setOnAction(e -> apiBus.out().accept(new ApiRequest.CreateSection(
       quiz.id(), newSectionTitle.getText())));
     apiBus.in().ofType(ApiResponse.SectionCreated.class)
-      .filter(e -> e.quizId().equals(quiz.id()))
+      .filter(e -> quiz != null && e.quizId().equals(quiz.id()))
+      .compose(timed())
       .subscribe(e -> {
         showCreateSection();
         sections.getItems().add(e.section());
       });
     apiBus.in().ofType(ApiResponse.SectionMoved.class)
-      .filter(e -> e.quizId().equals(quiz.id()))
-      .subscribe(e -> {
-        val temp = new ArrayList<>(sections.getItems());
-        sections.getItems().clear();
-        for (String sc : e.scs()) 
-          temp.stream().filter(s -> s.sc().equals(sc)).findAny()
-            .ifPresent(sections.getItems()::add);
-      });
+      .filter(e -> quiz != null && e.quizId().equals(quiz.id()))
+      .compose(timed())
+      .subscribe(e -> Reorder.byKeys(sections.getItems(), e.scs(), OutSection::sc));
     apiBus.in().ofType(ApiResponse.SectionRemoved.class)
-      .filter(e -> e.quizId().equals(quiz.id()))
+      .filter(e -> quiz != null && e.quizId().equals(quiz.id()))
+      .compose(timed())
       .subscribe(e -> sections.getItems().removeIf(s -> s.sc().equals(e.sc())));
+    apiBus.in().ofType(ApiResponse.RequestConfirmed.class)
+      .filter(e -> ownsEdit(e.request()))
+      .compose(timed())
+      .subscribe(e -> unconfirmed.confirm(e.request()));
+    apiBus.in().ofType(ApiResponse.RequestFailed.class)
+      .filter(e -> ownsEdit(e.request()))
+      .compose(timed())
+      .subscribe(e -> rollback(e.request()));
+  }
+
+  // the quiz comes with section headers, items are loaded for the preview
+  private final Set<String> loaded = new HashSet<>();
+  private final Set<String> previewPending = new HashSet<>();
+
+  // sections order before every move or removal not yet confirmed
+  private final PendingEdits<List<OutSection>> unconfirmed = new PendingEdits<>();
+
+  private boolean ownsEdit(ApiRequest r) {
+    return (r instanceof ApiRequest.MoveSection || r instanceof ApiRequest.RemoveSection) &&
+      quiz != null && ((ApiRequest.WithQuizId) r).quizId().equals(quiz.id());
+  }
+
+  private void command(ApiRequest request) {
+    val items = sections.getItems();
+    if (request instanceof ApiRequest.MoveSection) {
+      val move = (ApiRequest.MoveSection) request;
+      unconfirmed.add(request, List.copyOf(items));
+      int from = -1;
+      for (int i = 0; i < items.size(); i++)
+        if (items.get(i).sc().equals(move.sc()))
+          from = i;
+      val to = move.up() ? from - 1 : from + 1;
+      if (from >= 0 && to >= 0 && to < items.size())
+        items.add(to, items.remove(from));
+    } else if (request instanceof ApiRequest.RemoveSection) {
+      val remove = (ApiRequest.RemoveSection) request;
+      unconfirmed.add(request, List.copyOf(items));
+      items.removeIf(s -> s.sc().equals(remove.sc()));
+    }
+    apiBus.out().accept(request);
+  }
+
+  /**
+   * Puts the sections back in the order before the failed edit, keeping
+   * the ones created meanwhile.
+   */
+  private void rollback(ApiRequest failed) {
+    val before = unconfirmed.fail(failed);
+    if (before == null)
+      return;
+    val created = new ArrayList<>(sections.getItems());
+    created.removeAll(before);
+    sections.getItems().setAll(before);
+    sections.getItems().addAll(created);
   }
 
   private <T extends ApiResponse.WithQuizId & ApiResponse.WithPersonId> void listenReadySign(
     Observable<T> in,
     BiConsumer<Set<OutPerson>, OutPerson> readyMod
   ) {
-    in.filter(e -> e.quizId().equals(quiz.id())).subscribe(e ->
-      quiz.authors().stream().filter(i -> i.id().equals(e.personId())).findAny()
-        .ifPresent(a -> {
-          val ready = new HashSet<>(quiz.readinessSigns());
-          readyMod.accept(ready, a);
-          set(quiz.withReadinessSigns(ready));
-        })
-      );
-    }
+    in.filter(e -> quiz != null && e.quizId().equals(quiz.id())).compose(timed()).subscribe(e ->
+      member(authors, e.personId()).ifPresent(a -> {
+        readyMod.accept(readinessSigns, a);
+        quiz = quiz.withReadinessSigns(PersonRegistry.shared.members(readinessSigns));
+      })
+    );
+  }
 
   private <T extends ApiResponse.WithQuizId & ApiResponse.WithPersonId> void listenApproval(
     Observable<T> in,
     BiConsumer<Set<OutPerson>, OutPerson> approvalsMod,
     BiConsumer<Set<OutPerson>, OutPerson> disapprovalsMod
   ) {
-    in.filter(e -> e.quizId().equals(quiz.id())).subscribe(e ->
-      quiz.inspectors().stream().filter(i -> i.id().equals(e.personId())).findAny()
-        .ifPresent(i -> {
-          val apps = new HashSet<>(quiz.approvals());
-          val disapps = new HashSet<>(quiz.disapprovals());
-          approvalsMod.accept(apps, i);
-          disapprovalsMod.accept(disapps, i);
-          set(quiz.withApprovals(apps).withDisapprovals(disapps));
-        })
-      );
+    in.filter(e -> quiz != null && e.quizId().equals(quiz.id())).compose(timed()).subscribe(e ->
+      member(inspectors, e.personId()).ifPresent(i -> {
+        approvalsMod.accept(approvalSigns, i);
+        disapprovalsMod.accept(disapprovalSigns, i);
+        quiz = quiz.withApprovals(PersonRegistry.shared.members(approvalSigns))
+          .withDisapprovals(PersonRegistry.shared.members(disapprovalSigns));
+      })
+    );
+  }
+
+  private static Optional<OutPerson> member(Set<OutPerson> members, String personId) {
+    return members.stream().filter(p -> p.id().equals(personId)).findAny();
+  }
+
+  /** Keeps a label per member of the set in the box */
+  private static void showMembers(ObservableSet<OutPerson> members, Pane box, String styleClass) {
+    val labels = new HashMap<OutPerson, Label>();
+    members.addListener((SetChangeListener<OutPerson>) c -> {
+      if (c.wasRemoved())
+        box.getChildren().remove(labels.remove(c.getElementRemoved()));
+      if (c.wasAdded()) {
+        val l = new Label(c.getElementAdded().name());
+        l.getStyleClass().add(styleClass);
+        labels.put(c.getElementAdded(), l);
+        box.getChildren().add(l);
+      }
+    });
   }
 
-  private synchronized void set(OutFullQuiz quiz) {
+  /** changes the set to the members given, leaving the kept ones alone */
+  private static void update(ObservableSet<OutPerson> set, Set<OutPerson> members) {
+    set.retainAll(members);
+    set.addAll(members);
+  }
+
+  private void set(OutFullQuiz quiz) {
     this.quiz = quiz;
     id.setText(quiz.id());
     title.setText(quiz.title());
     intro.setText(quiz.intro());
     recommendedLength.setText(quiz.recommendedLength().toString());
     curatorName.setText(quiz.curator().name());
-    status.setText(quiz.state());
-    sections.getItems().clear();
-    sections.getItems().addAll(quiz.sections());
-
-    readiness.getChildren().clear();
-    quiz.readinessSigns().stream().map(a -> {
-      val l = new Label(a.name());
-      l.getStyleClass().add("check");
-      return l;
-    }).forEach(readiness.getChildren()::add);
-    approvals.getChildren().clear();
-    Stream.concat(
-      quiz.approvals().stream().map(i -> {
-        val l = new Label(i.name());
-        l.getStyleClass().add("check");
-        return l;
-      }),
-      quiz.disapprovals().stream().map(i -> {
-        val l = new Label(i.name());
-        l.getStyleClass().add("uncheck");
-        return l;
-      })
-    ).forEach(approvals.getChildren()::add);
-    saveChanges.setDisable(
-      (!"Composing".equals(quiz.state())) ||
-      !quiz.authors().contains(user)
-    );
-    setReady.setDisable(
-      !"Composing".equals(quiz.state()) ||
-      !quiz.authors().contains(user) ||
-      quiz.readinessSigns().contains(user)
-    );
-    unsetReady.setDisable(
-      !"Composing".equals(quiz.state()) ||
-      !quiz.authors().contains(user) ||
-      !quiz.readinessSigns().contains(user)
-    );
-    approve.setDisable(
-      !"Review".equals(quiz.state()) ||
-      !quiz.inspectors().contains(user)
-    );
-    disapprove.setDisable(
-      !"Review".equals(quiz.state()) ||
-      !quiz.inspectors().contains(user)
-    );
+    unconfirmed.clear();
+    sections.getItems().setAll(quiz.sections());
+
+    state.set(quiz.state());
+    update(authors, quiz.authors());
+    update(inspectors, quiz.inspectors());
+    update(readinessSigns, quiz.readinessSigns());
+    update(approvalSigns, quiz.approvals());
+    update(disapprovalSigns, quiz.disapprovals());
   }
 
 }
-  
-
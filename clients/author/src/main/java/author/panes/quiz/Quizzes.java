@@ -14,6 +14,11 @@ import author.events.ApiResponse;
 import author.requests.ApiRequest;
 import author.util.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import lombok.val;
+
 public class Quizzes {
 
   interface UIMessage {}
@@ -28,6 +33,12 @@ public class Quizzes {
   static class GotoQuiz implements UIMessage {
     String quizId;
   }
+  /** list filters chosen, null for any */
+  @lombok.Value
+  static class FilterList implements UIMessage {
+    String state;
+    Boolean obsolete;
+  }
 
   private final Bus<UIMessage, UIMessage> uiBus = new PipeBus<>();
   private final Bus<ApiResponse, ApiRequest> apiBus;
@@ -42,16 +53,26 @@ public class Quizzes {
   private Node buttonBox;
 
   public static Node create(Bus<ApiResponse, ApiRequest> apiBus) {
-    return new Quizzes(apiBus).init();
+    return load(apiBus, Runnable::run).join();
+  }
+
+  /** Loads the panes on the executor in parallel; none of it needs the FX thread */
+  public static CompletableFuture<Node> load(Bus<ApiResponse, ApiRequest> apiBus, Executor executor) {
+    val quizzes = new Quizzes(apiBus);
+    val side = CompletableFuture.supplyAsync(
+      () -> Factories.nodeWith(new QuizFormPane(apiBus, quizzes.uiBus)), executor);
+    val list = CompletableFuture.supplyAsync(
+      () -> Factories.nodeWith(new ListPane(apiBus, quizzes.uiBus)), executor);
+    val create = CompletableFuture.supplyAsync(
+      () -> Factories.nodeWith(new CreateQuizPane(apiBus, quizzes.uiBus)), executor);
+    return CompletableFuture.allOf(side, list, create)
+      .thenApply(v -> quizzes.init(side.join(), list.join(), create.join()));
   }
 
-  private Node init() {
+  private Node init(Node side, Node list, Node create) {
 
-    Node side = Factories.nodeWith(new QuizFormPane(apiBus, uiBus));
     side.setId("form");
-    Node list = Factories.nodeWith(new ListPane(apiBus, uiBus));
     list.setId("mainList");
-    Node create = Factories.nodeWith(new CreateQuizPane(apiBus, uiBus));
     create.setId("createPane");
     Node buttons = new CreateButtonBox(apiBus, uiBus);
     buttons.setId("buttonsBox");
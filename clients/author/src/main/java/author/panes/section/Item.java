@@ -60,7 +60,7 @@ public class Item extends VBox {
     return sc;
   }
 
-  private OutItem getItem() {
+  OutItem getItem() {
     val solutions = new ArrayList<Integer>();
     val hintLists = new ArrayList<List<OutStatement>>();
     int index = 0;
@@ -6,7 +6,11 @@ import javafx.scene.layout.*;
 
 import java.util.Collections;
 import java.util.ArrayList;
-import java.util.Optional;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import author.dtos.*;
 import author.util.*;
@@ -14,15 +18,21 @@ import author.messages.MainUIMessage;
 import author.events.ApiResponse;
 import author.requests.ApiRequest;
 
+import io.reactivex.rxjava3.core.ObservableTransformer;
+
 import lombok.val;
 
 
+/**
+ * Section editor. Items are shown in a list view, only the visible ones have
+ * an {@link Item} control; edits of an item that scrolls away are kept as its draft
+ * until the section is set again.
+ */
 public class SectionPane extends VBox {
 
   private TextField title;
   private TextArea intro;
-  private VBox itemsBox;
-  private ScrollPane scroll;
+  private ListView<String> itemsBox;
 
   private Bus<ApiResponse, ApiRequest> apiBus;
   private Bus<MainUIMessage, MainUIMessage> uiBus;
@@ -44,13 +54,11 @@ public class SectionPane extends VBox {
     intro.setMinHeight(100);
     intro.setId("intro");
     intro.setPromptText("Intro");
-    itemsBox = new VBox();
+    itemsBox = new ListView<>();
     itemsBox.setId("itemsBox");
-    itemsBox.setPadding(new Insets(20));
-    scroll = new ScrollPane(itemsBox);
-    scroll.setFitToWidth(true);
-    scroll.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-    scroll.setVbarPolicy(ScrollPane.ScrollBarPolicy.ALWAYS);
+    itemsBox.getStyleClass().add("items");
+    itemsBox.setFocusTraversable(false);
+    itemsBox.setCellFactory(v -> new ItemCell());
 
     val buttonBox = new HBox();
     buttonBox.setSpacing(10);
@@ -62,49 +70,156 @@ public class SectionPane extends VBox {
 
     top.getChildren().addAll(title, intro, buttonBox);
 
-    getChildren().addAll(top, scroll);
-    setVgrow(scroll, Priority.ALWAYS);
+    getChildren().addAll(top, itemsBox);
+    setVgrow(itemsBox, Priority.ALWAYS);
 
-    apiBus.in().ofType(ApiResponse.SectionOwned.class).subscribe(e -> setSection(e.section()));
+    this.apiBus.in().ofType(ApiResponse.SectionOwned.class).compose(timed()).subscribe(e -> setSection(e.section()));
 
-    save.setOnAction(e -> apiBus.out().accept(new ApiRequest.UpdateSection(
+    save.setOnAction(e -> this.apiBus.out().accept(new ApiRequest.UpdateSection(
       sc, title.getText(), intro.getText())));
-    addItem.setOnAction(e -> apiBus.out().accept(new ApiRequest.AddItem(sc)));
-    discharge.setOnAction(e -> apiBus.out().accept(new ApiRequest.DischargeSection(sc)));
-    apiBus.in().ofType(ApiResponse.ItemAdded.class)
-      .filter(e -> e.sectionSC().equals(sc))
-      .subscribe(e -> itemsBox.getChildren().add(new Item(
-        sc, new OutItem(e.sc(), "", 
-          new OutStatement("", null), Collections.emptyList(), false, Collections.emptyList()),
-        apiBus.out()::accept)));
-    apiBus.in().ofType(ApiResponse.ItemRemoved.class)
-      .filter(e -> e.sectionSC().equals(sc))
-      .subscribe(e -> itemsBox.getChildren().removeIf(item -> ((Item) item).getSC().equals(e.sc())));
-    apiBus.in().ofType(ApiResponse.ItemMoved.class)
+    addItem.setOnAction(e -> this.apiBus.out().accept(new ApiRequest.AddItem(sc)));
+    discharge.setOnAction(e -> this.apiBus.out().accept(new ApiRequest.DischargeSection(sc)));
+    this.apiBus.in().ofType(ApiResponse.ItemAdded.class)
       .filter(e -> e.sectionSC().equals(sc))
+      .compose(timed())
       .subscribe(e -> {
-        val items = new ArrayList<>(itemsBox.getChildren());
-        itemsBox.getChildren().clear();
-        e.scs().stream().map(sc -> items.stream().map(Item.class::cast)
-          .filter(i -> i.getSC().equals(sc)).findAny())
-          .filter(Optional::isPresent).map(Optional::get)
-          .forEach(itemsBox.getChildren()::add);
+        drafts.put(e.sc(), new OutItem(e.sc(), "",
+          new OutStatement("", null), Collections.emptyList(), false, Collections.emptyList()));
+        itemsBox.getItems().add(e.sc());
       });
+    this.apiBus.in().ofType(ApiResponse.ItemRemoved.class)
+      .filter(e -> e.sectionSC().equals(sc))
+      .compose(timed())
+      .subscribe(e -> itemsBox.getItems().remove(e.sc()));
+    this.apiBus.in().ofType(ApiResponse.ItemMoved.class)
+      .filter(e -> e.sectionSC().equals(sc))
+      .compose(timed())
+      .subscribe(e -> Reorder.byKeys(itemsBox.getItems(), e.scs(), Function.identity()));
+    this.apiBus.in().ofType(ApiResponse.RequestConfirmed.class)
+      .filter(e -> ownsEdit(e.request()))
+      .compose(timed())
+      .subscribe(e -> unconfirmed.confirm(e.request()));
+    this.apiBus.in().ofType(ApiResponse.RequestFailed.class)
+      .filter(e -> ownsEdit(e.request()))
+      .compose(timed())
+      .subscribe(e -> rollback(e.request()));
+
+  }
+
+  /** handlers run on the FX thread are timed as this pane's */
+  private static <T> ObservableTransformer<T, T> timed() {
+    return FxMonitor.shared.timed("SectionPane");
+  }
+
+  // items order before every move or removal not yet confirmed
+  private final PendingEdits<List<String>> unconfirmed = new PendingEdits<>();
+
+  private boolean ownsEdit(ApiRequest r) {
+    return (r instanceof ApiRequest.MoveItem || r instanceof ApiRequest.RemoveItem) &&
+      ((ApiRequest.WithSectionSC) r).sectionSC().equals(sc);
+  }
+
+  private void command(ApiRequest request) {
+    val items = itemsBox.getItems();
+    if (request instanceof ApiRequest.MoveItem) {
+      val move = (ApiRequest.MoveItem) request;
+      unconfirmed.add(request, List.copyOf(items));
+      val from = indexOf(move.sc());
+      val to = move.up() ? from - 1 : from + 1;
+      if (from >= 0 && to >= 0 && to < items.size())
+        items.add(to, items.remove(from));
+    } else if (request instanceof ApiRequest.RemoveItem) {
+      val remove = (ApiRequest.RemoveItem) request;
+      unconfirmed.add(request, List.copyOf(items));
+      items.remove(remove.sc());
+    }
+    apiBus.out().accept(request);
+  }
 
+  private int indexOf(String itemSC) {
+    return itemsBox.getItems().indexOf(itemSC);
+  }
+
+  /**
+   * Restores the order before the failed edit; later edits are undone as well,
+   * the ones the server accepts come back with their responses.
+   */
+  private void rollback(ApiRequest failed) {
+    val before = unconfirmed.fail(failed);
+    if (before == null)
+      return;
+    val added = new ArrayList<>(itemsBox.getItems());
+    added.removeAll(new HashSet<>(before));
+    itemsBox.getItems().setAll(before);
+    itemsBox.getItems().addAll(added);
   }
 
   private String sc;
 
   private void setSection(OutSection section) {
     this.sc = section.sc();
+    unconfirmed.clear();
     title.setText(section.title());
     intro.setText(section.intro());
-    itemsBox.getChildren().clear();
+    drafts.clear();
+    shown.clear();
+    val scs = new ArrayList<String>();
     for (val data : section.items()) {
-      val item = new Item(section.sc(), data, apiBus.out());
-      itemsBox.getChildren().add(item);
+      drafts.put(data.sc(), data);
+      scs.add(data.sc());
+    }
+    itemsBox.getItems().setAll(scs);
+    itemsBox.scrollTo(0);
+  }
+
+  // last known content of every item by its sc, and the cell showing it
+  private final Map<String, OutItem> drafts = new HashMap<>();
+  private final Map<String, ItemCell> shown = new HashMap<>();
+
+  private static final OutItem NO_ITEM =
+    new OutItem("", "", new OutStatement("", null), List.of(), false, List.of());
+
+  /** Keeps edits of its item as a draft when it is given another one */
+  private class ItemCell extends ListCell<String> {
+
+    private final Item item = new Item(null, NO_ITEM, SectionPane.this::command);
+    private String itemSC;
+
+    ItemCell() {
+      setText(null);
+    }
+
+    @Override
+    protected void updateItem(String newSC, boolean empty) {
+      super.updateItem(newSC, empty);
+      if (empty)
+        newSC = null;
+      if (newSC != null && newSC.equals(itemSC) && shown.get(newSC) == this)
+        return;
+      release();
+      if (newSC == null) {
+        setGraphic(null);
+        return;
+      }
+      // the item moved here from another cell, the draft takes over its edits
+      val other = shown.get(newSC);
+      if (other != null)
+        other.release();
+      itemSC = newSC;
+      shown.put(newSC, this);
+      item.setData(sc, drafts.get(newSC));
+      setGraphic(item);
     }
-    scroll.setVvalue(0);
+
+    private void release() {
+      if (itemSC != null && shown.get(itemSC) == this) {
+        shown.remove(itemSC);
+        if (drafts.containsKey(itemSC))
+          drafts.put(itemSC, item.getItem());
+      }
+      itemSC = null;
+    }
+
   }
 
 }
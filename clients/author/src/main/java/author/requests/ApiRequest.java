@@ -1,23 +1,75 @@
 package author.requests;
 
 import author.dtos.*;
+import java.util.Comparator;
 import java.util.Set;
 
 import lombok.*;
 
 public interface ApiRequest {
 
-  ApiRequest GET_LIST = new ApiRequest() {
-    @Override public String toString() { return "GET_LIST"; }
+  /** quizzes changed since the list was last fetched */
+  ApiRequest REFRESH_LIST = new ApiRequest() {
+    @Override public String toString() { return "REFRESH_LIST"; }
   };
   ApiRequest GET_STAFF = new ApiRequest() {
     @Override public String toString() { return "GET_STAFF"; }
   };
 
+  interface WithQuizId extends ApiRequest {
+    String quizId();
+  }
+  interface WithSectionSC extends ApiRequest {
+    String sectionSC();
+  }
+
+  /** Order and filters of the paged quiz list, null filters match every quiz */
+  @Value @With
+  class ListQuery {
+    public static final ListQuery FIRST = new ListQuery(100, "id", null, null, null, false);
+
+    int limit;
+    /** id or title */
+    String sort;
+    String state;
+    Boolean obsolete;
+    String member;
+    boolean descending;
+
+    /** the order the server sorts in: by id, or by title then id */
+    public Comparator<OutQuizListed> order() {
+      Comparator<OutQuizListed> byId = Comparator.comparing(OutQuizListed::id);
+      Comparator<OutQuizListed> order = "title".equals(sort)
+        ? Comparator.comparing(OutQuizListed::title).thenComparing(byId)
+        : byId;
+      return descending ? order.reversed() : order;
+    }
+
+    public boolean matches(OutQuizListed quiz) {
+      return (state == null || state.equals(quiz.state())) &&
+        (obsolete == null || obsolete.equals(quiz.obsolete())) &&
+        (member == null || quiz.curator().id().equals(member) ||
+          quiz.authors().stream().anyMatch(p -> p.id().equals(member)) ||
+          quiz.inspectors().stream().anyMatch(p -> p.id().equals(member)));
+    }
+  }
+  /** page of the list following the cursor, the first one without it */
+  @Value
+  class GetPage implements ApiRequest {
+    ListQuery query;
+    String after;
+  }
+
+  /** quiz with section headers only, items come with {@link LoadSection} */
   @Value
   class GetQuiz implements ApiRequest {
     String id;
   }
+  @Value
+  class LoadSection implements ApiRequest {
+    String quizId;
+    String sc;
+  }
 
   @Value
   class Create implements ApiRequest {
@@ -27,96 +79,96 @@ public interface ApiRequest {
     Set<String> inspectors;
   }
   @Value
-  class AddAuthor implements ApiRequest {
+  class AddAuthor implements WithQuizId {
     String quizId;
     String personId;
   }
   @Value
-  class RemoveAuthor implements ApiRequest {
+  class RemoveAuthor implements WithQuizId {
     String quizId;
     String personId;
   }
   @Value
-  class AddInspector implements ApiRequest {
+  class AddInspector implements WithQuizId {
     String quizId;
     String personId;
   }
   @Value
-  class RemoveInspector implements ApiRequest {
+  class RemoveInspector implements WithQuizId {
     String quizId;
     String personId;
   }
   @Value
-  class SetObsolete implements ApiRequest {
+  class SetObsolete implements WithQuizId {
     String quizId;
   }
 
   @Value
-  class MoveSection implements ApiRequest {
+  class MoveSection implements WithQuizId {
     String quizId;
     String sc;
     boolean up;
   }
   @Value
-  class RemoveSection implements ApiRequest {
+  class RemoveSection implements WithQuizId {
     String sc;
     String quizId;
   }
 
   @Value
-  class UpdateQuiz implements ApiRequest {
+  class UpdateQuiz implements WithQuizId {
     String quizId;
     String title;
     String intro;
     int recommendedLength;
   }
   @Value
-  class SetReady implements ApiRequest {
+  class SetReady implements WithQuizId {
     String quizId;
   }
   @Value
-  class UnsetReady implements ApiRequest {
+  class UnsetReady implements WithQuizId {
     String quizId;
   }
   @Value
-  class Approve implements ApiRequest {
+  class Approve implements WithQuizId {
     String quizId;
   }
   @Value
-  class Disapprove implements ApiRequest {
+  class Disapprove implements WithQuizId {
     String quizId;
   }
 
   @Value
-  class CreateSection implements ApiRequest {
+  class CreateSection implements WithQuizId {
     String quizId;
     String title;
   }
 
   @Value
-  class SaveItem implements ApiRequest {
+  class SaveItem implements WithSectionSC {
     String sectionSC;
     OutItem item;
   }
   @Value
-  class RemoveItem implements ApiRequest {
+  class RemoveItem implements WithSectionSC {
     String sectionSC;
     String sc;
   }
   @Value
-  class MoveItem implements ApiRequest {
+  class MoveItem implements WithSectionSC {
     String sectionSC;
     String sc;
     boolean up;
   }
   @Value
-  class UpdateSection implements ApiRequest {
+  class UpdateSection implements WithSectionSC {
     String sectionSC;
     String title;
     String intro;
   }
   @Value
-  class AddItem implements ApiRequest {
+  class AddItem implements WithSectionSC {
     String sectionSC;
   }
   @Value 
@@ -124,7 +176,7 @@ public interface ApiRequest {
     String sc;
   }
   @Value
-  class OwnSection implements ApiRequest {
+  class OwnSection implements WithQuizId {
     String quizId;
     String sc;
   }
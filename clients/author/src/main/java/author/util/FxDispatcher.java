@@ -0,0 +1,80 @@
+package author.util;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+import lombok.val;
+
+/**
+ * Runs tasks on the FX thread in batches.
+ *
+ * Tasks dispatched while none is pending share one {@link Platform#runLater} call,
+ * so a burst of bus messages is handled in one go and laid out in one pulse. A batch
+ * stops after the time budget, the rest is run in the next one, letting the pulse in
+ * between; at least one task runs per batch. Tasks run in the order they came.
+ * How long tasks wait and batches run is recorded in the {@link FxMonitor}.
+ */
+public class FxDispatcher {
+
+  public static final FxDispatcher shared = new FxDispatcher(Duration.ofMillis(8), FxMonitor.shared);
+
+  @lombok.Value
+  private static class Task {
+    Runnable run;
+    long queued;
+  }
+
+  private final Queue<Task> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final FxMonitor monitor;
+  private final Consumer<Runnable> later;
+  private volatile long budgetNanos;
+
+  public FxDispatcher(Duration budget, FxMonitor monitor) {
+    this(budget, monitor, Platform::runLater);
+  }
+
+  FxDispatcher(Duration budget, FxMonitor monitor, Consumer<Runnable> later) {
+    this.monitor = monitor;
+    this.later = later;
+    setBudget(budget);
+  }
+
+  /** how long a batch may run, zero runs all pending tasks */
+  public void setBudget(Duration budget) {
+    budgetNanos = budget.toNanos();
+  }
+
+  public void dispatch(Runnable task) {
+    pending.add(new Task(task, System.nanoTime()));
+    if (scheduled.compareAndSet(false, true))
+      later.accept(this::drain);
+  }
+
+  private void drain() {
+    val started = System.nanoTime();
+    val deadline = started + budgetNanos;
+    try {
+      Task task;
+      do {
+        task = pending.poll();
+        if (task != null) {
+          monitor.record(FxMonitor.FX, "queue delay", System.nanoTime() - task.queued());
+          task.run().run();
+        }
+      } while (task != null && (budgetNanos == 0 || System.nanoTime() < deadline));
+    } finally {
+      monitor.record(FxMonitor.FX, "batch", System.nanoTime() - started);
+      // a failed task leaves the ones after it to the next batch
+      scheduled.set(false);
+      if (!pending.isEmpty() && scheduled.compareAndSet(false, true))
+        later.accept(this::drain);
+    }
+  }
+
+}
@@ -0,0 +1,191 @@
+package author.util;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import io.reactivex.rxjava3.core.ObservableTransformer;
+import io.reactivex.rxjava3.core.Observer;
+import io.reactivex.rxjava3.disposables.Disposable;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import lombok.val;
+
+/**
+ * Responsiveness of the FX thread: how long tasks wait for it, how long batches of
+ * bus deliveries and the layout of every pulse take, and how long each timed subscriber
+ * runs, by the pane owning it and the message type. Anything slower
+ * than the threshold counts as a stall and is logged.
+ */
+@lombok.extern.slf4j.Slf4j
+public class FxMonitor implements FxMonitorMXBean {
+
+  public static final FxMonitor shared = new FxMonitor(Duration.ofMillis(50));
+
+  /** owner of the timings of the FX thread itself */
+  public static final String FX = "FX";
+
+  @lombok.Value
+  public static class Key {
+    String owner;
+    String event;
+  }
+
+  @lombok.Value
+  public static class Row {
+    String owner;
+    String event;
+    long count;
+    long stalls;
+    /** median, 99th percentile and maximum, in milliseconds */
+    double p50;
+    double p99;
+    double max;
+  }
+
+  private static class Stats {
+    private final LongAdder stalls = new LongAdder();
+    private final Histogram micros = new ConcurrentHistogram(3);
+  }
+
+  private final Map<Key, Stats> stats = new ConcurrentHashMap<>();
+  private volatile long thresholdNanos;
+
+  public FxMonitor(Duration threshold) {
+    thresholdNanos = threshold.toNanos();
+  }
+
+  public void record(String owner, String event, long nanos) {
+    val s = stats.computeIfAbsent(new Key(owner, event), k -> new Stats());
+    s.micros.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+    if (nanos >= thresholdNanos) {
+      s.stalls.increment();
+      log.warn("{} {} took {}ms", owner, event, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+  }
+
+  /**
+   * Times the subscriber when run on the FX thread, as the owner's handling of the
+   * message type; composed right before {@code subscribe}, so that messages filtered
+   * out on the way are not counted
+   */
+  public <T> ObservableTransformer<T, T> timed(String owner) {
+    return timed(owner, null);
+  }
+
+  /** Same, for a subscriber of messages derived from several types, under one event */
+  public <T> ObservableTransformer<T, T> timed(String owner, String event) {
+    return upstream -> upstream.lift(downstream -> new Timing<>(owner, event, downstream));
+  }
+
+  private class Timing<T> implements Observer<T> {
+
+    private final String owner;
+    private final String event;
+    private final Observer<? super T> downstream;
+
+    Timing(String owner, String event, Observer<? super T> downstream) {
+      this.owner = owner;
+      this.event = event;
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+      downstream.onSubscribe(d);
+    }
+
+    @Override
+    public void onNext(T message) {
+      if (!Platform.isFxApplicationThread()) {
+        downstream.onNext(message);
+        return;
+      }
+      val started = System.nanoTime();
+      downstream.onNext(message);
+      record(owner, event != null ? event : message.getClass().getSimpleName(), System.nanoTime() - started);
+    }
+
+    @Override
+    public void onError(Throwable e) {
+      downstream.onError(e);
+    }
+
+    @Override
+    public void onComplete() {
+      downstream.onComplete();
+    }
+
+  }
+
+  /** Times css and layout of every pulse of the scene */
+  public void watch(Scene scene) {
+    val started = new long[1];
+    scene.addPreLayoutPulseListener(() -> started[0] = System.nanoTime());
+    scene.addPostLayoutPulseListener(() -> record(FX, "layout", System.nanoTime() - started[0]));
+  }
+
+  /** Records the time from the start to the end of the layout of the scene's next pulse */
+  public void untilNextPulse(Scene scene, String event, long started) {
+    val done = new Runnable[1];
+    done[0] = () -> {
+      if (done[0] == null)
+        return;
+      // not while the scene runs its listeners
+      val listener = done[0];
+      Platform.runLater(() -> scene.removePostLayoutPulseListener(listener));
+      done[0] = null;
+      val nanos = System.nanoTime() - started;
+      record(FX, event, nanos);
+      log.info("{} after {}ms", event, TimeUnit.NANOSECONDS.toMillis(nanos));
+    };
+    scene.addPostLayoutPulseListener(done[0]);
+    Platform.requestNextPulse();
+  }
+
+  /** slowest first */
+  public List<Row> snapshot() {
+    val rows = new ArrayList<Row>();
+    stats.forEach((k, s) -> rows.add(new Row(k.owner(), k.event(), s.micros.getTotalCount(),
+      s.stalls.sum(), s.micros.getValueAtPercentile(50) / 1000.0,
+      s.micros.getValueAtPercentile(99) / 1000.0, s.micros.getMaxValue() / 1000.0)));
+    rows.sort(Comparator.comparingDouble(Row::max).reversed());
+    return rows;
+  }
+
+  @Override
+  public long getStallCount() {
+    return stats.values().stream().mapToLong(s -> s.stalls.sum()).sum();
+  }
+
+  @Override
+  public long getThresholdMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+  }
+
+  @Override
+  public void setThresholdMillis(long millis) {
+    thresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  @Override
+  public String[] getSlowest() {
+    return snapshot().stream().limit(20).map(r -> String.format(Locale.ROOT,
+      "%s %s count=%d stalls=%d p50=%.2fms p99=%.2fms max=%.2fms",
+      r.owner(), r.event(), r.count(), r.stalls(), r.p50(), r.p99(), r.max())
+    ).toArray(String[]::new);
+  }
+
+  @Override
+  public void reset() {
+    stats.clear();
+  }
+
+}
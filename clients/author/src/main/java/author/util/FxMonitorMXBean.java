@@ -0,0 +1,21 @@
+package author.util;
+
+/**
+ * JMX view of {@link FxMonitor}, registered by the application
+ * under {@code author:type=FxMonitor}.
+ */
+public interface FxMonitorMXBean {
+
+  /** handlers, batches and pulses that took at least the threshold */
+  long getStallCount();
+
+  long getThresholdMillis();
+
+  void setThresholdMillis(long millis);
+
+  /** one line per owner and event with counts and timings, slowest first */
+  String[] getSlowest();
+
+  void reset();
+
+}
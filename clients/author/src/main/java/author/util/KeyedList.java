@@ -0,0 +1,139 @@
+package author.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import lombok.val;
+
+/**
+ * Observable list of values with unique keys, indexed by key.
+ *
+ * Lookups and in place updates take constant time and fire a single replace change.
+ * A new content is applied as a patch: rows kept at the head and the tail are only
+ * replaced when they differ, everything in between is removed and added in one go,
+ * so a view of the list re-lays out the changed rows only.
+ */
+public class KeyedList<K, V> {
+
+  private final Function<V, K> key;
+  private final ObservableList<V> items = FXCollections.observableArrayList();
+  private final ObservableList<V> view = FXCollections.unmodifiableObservableList(items);
+  private final Map<K, Integer> index = new HashMap<>();
+
+  public KeyedList(Function<V, K> key) {
+    this.key = key;
+  }
+
+  /** read only view to bind controls to, changed through this model only */
+  public ObservableList<V> items() {
+    return view;
+  }
+
+  public int size() {
+    return items.size();
+  }
+
+  public V get(K k) {
+    val i = index.get(k);
+    return i == null ? null : items.get(i);
+  }
+
+  public int indexOf(K k) {
+    return index.getOrDefault(k, -1);
+  }
+
+  /** replaces the value with the same key, a new key is appended */
+  public void put(V value) {
+    val i = index.get(key.apply(value));
+    if (i == null) {
+      index.put(key.apply(value), items.size());
+      items.add(value);
+    } else if (!equal(items.get(i), value)) {
+      items.set(i, value);
+    }
+  }
+
+  /** applies the modification to the value with the key, if there is one */
+  public void update(K k, UnaryOperator<V> modification) {
+    val i = index.get(k);
+    if (i == null)
+      return;
+    val value = items.get(i);
+    val modified = modification.apply(value);
+    if (!equal(value, modified))
+      items.set(i, modified);
+  }
+
+  /** inserts the value of a new key at the position */
+  public void add(int i, V value) {
+    items.add(i, value);
+    reindex(i);
+  }
+
+  public void addAll(List<V> values) {
+    val from = items.size();
+    items.addAll(values);
+    reindex(from);
+  }
+
+  public void remove(K k) {
+    val i = index.remove(k);
+    if (i == null)
+      return;
+    items.remove((int) i);
+    reindex(i);
+  }
+
+  public void setAll(List<V> values) {
+    val size = items.size();
+    int head = 0;
+    while (head < size && head < values.size() &&
+        Objects.equals(key.apply(items.get(head)), key.apply(values.get(head))))
+      head++;
+    int tail = 0;
+    while (tail < size - head && tail < values.size() - head &&
+        Objects.equals(key.apply(items.get(size - 1 - tail)),
+          key.apply(values.get(values.size() - 1 - tail))))
+      tail++;
+
+    for (int i = 0; i < head; i++)
+      if (!equal(items.get(i), values.get(i)))
+        items.set(i, values.get(i));
+    for (int i = 1; i <= tail; i++)
+      if (!equal(items.get(size - i), values.get(values.size() - i)))
+        items.set(size - i, values.get(values.size() - i));
+
+    val middle = values.subList(head, values.size() - tail);
+    if (size - tail == head && middle.isEmpty())
+      return;
+    val removed = items.subList(head, size - tail);
+    removed.forEach(v -> index.remove(key.apply(v)));
+    if (!removed.isEmpty())
+      items.remove(head, size - tail);
+    if (!middle.isEmpty())
+      items.addAll(head, middle);
+    reindex(head);
+  }
+
+  public void clear() {
+    items.clear();
+    index.clear();
+  }
+
+  private void reindex(int from) {
+    for (int i = from; i < items.size(); i++)
+      index.put(key.apply(items.get(i)), i);
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return a == b || a.equals(b);
+  }
+
+}
@@ -0,0 +1,66 @@
+package author.util;
+
+import author.requests.ApiRequest;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+import lombok.val;
+
+/**
+ * States before optimistically applied edits, by the request of the edit, oldest
+ * first. An entry goes only when its own request is confirmed or fails, so events
+ * pushed for the edits of others leave them alone. Equal requests are settled in
+ * the order they were sent, as the server answers edits of an entity in order.
+ */
+public class PendingEdits<S> {
+
+  @lombok.Value
+  private static class Edit<S> {
+    ApiRequest request;
+    S before;
+  }
+
+  private final Deque<Edit<S>> edits = new ArrayDeque<>();
+
+  public void add(ApiRequest request, S before) {
+    edits.add(new Edit<>(request, before));
+  }
+
+  public void confirm(ApiRequest request) {
+    for (Iterator<Edit<S>> i = edits.iterator(); i.hasNext();)
+      if (i.next().request().equals(request)) {
+        i.remove();
+        return;
+      }
+  }
+
+  /**
+   * State before the failed edit, null if it is not pending; the edits after it
+   * are dropped as well, having been applied on top of it.
+   */
+  public S fail(ApiRequest request) {
+    for (Iterator<Edit<S>> i = edits.iterator(); i.hasNext();) {
+      val edit = i.next();
+      if (edit.request().equals(request)) {
+        i.remove();
+        while (i.hasNext()) {
+          i.next();
+          i.remove();
+        }
+        return edit.before();
+      }
+    }
+    return null;
+  }
+
+  public void clear() {
+    edits.clear();
+  }
+
+  public int size() {
+    return edits.size();
+  }
+
+}
@@ -0,0 +1,75 @@
+package author.util;
+
+import author.dtos.OutPerson;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import lombok.val;
+
+/**
+ * Canonical instances of persons and of member sets built from them.
+ *
+ * The same few staff members appear in every listed quiz; decoding goes through
+ * the registry, so all of them share one {@link OutPerson} per person and one
+ * immutable set per distinct membership, and equality checks mostly end on identity.
+ */
+public class PersonRegistry {
+
+  public static final PersonRegistry shared = new PersonRegistry(4096);
+
+  private final int maxSets;
+  private final Map<OutPerson, OutPerson> persons = new ConcurrentHashMap<>();
+  private final Map<Set<OutPerson>, Set<OutPerson>> sets = new ConcurrentHashMap<>();
+
+  public PersonRegistry(int maxSets) {
+    this.maxSets = maxSets;
+  }
+
+  public OutPerson intern(OutPerson person) {
+    if (person == null)
+      return null;
+    val known = persons.putIfAbsent(person, person);
+    return known == null ? person : known;
+  }
+
+  /** Immutable set of the interned members; the set itself is shared while the registry has room */
+  public Set<OutPerson> members(Collection<OutPerson> members) {
+    if (members.isEmpty())
+      return Set.of();
+    val set = members.stream().map(this::intern).collect(Collectors.toUnmodifiableSet());
+    if (sets.size() >= maxSets) {
+      val known = sets.get(set);
+      return known == null ? set : known;
+    }
+    val known = sets.putIfAbsent(set, set);
+    return known == null ? set : known;
+  }
+
+  /** forgets everything interned, so nothing of a session outlives its logout */
+  public void clear() {
+    persons.clear();
+    sets.clear();
+  }
+
+  public Set<OutPerson> with(Set<OutPerson> members, OutPerson person) {
+    if (members.contains(person))
+      return members;
+    val list = new ArrayList<>(members);
+    list.add(person);
+    return members(list);
+  }
+
+  public Set<OutPerson> without(Set<OutPerson> members, OutPerson person) {
+    if (!members.contains(person))
+      return members;
+    val list = new ArrayList<>(members);
+    list.remove(person);
+    return members(list);
+  }
+
+}
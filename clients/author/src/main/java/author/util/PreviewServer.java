@@ -27,6 +27,11 @@ public class PreviewServer {
   public PreviewServer(Bus<ApiResponse, ApiRequest> apiBus) {
     apiBus.in().ofType(ApiResponse.FullQuiz.class)
       .subscribe(e -> quizzes.put(e.quiz().id(), e.quiz()));
+    apiBus.in().ofType(ApiResponse.SectionLoaded.class)
+      .subscribe(e -> quizzes.computeIfPresent(e.quizId(), (id, quiz) -> quiz.withSections(
+        quiz.sections().stream()
+          .map(s -> s.sc().equals(e.section().sc()) ? e.section() : s)
+          .collect(Collectors.toList()))));
   }
 
   public void start(int port) {
@@ -0,0 +1,88 @@
+package author.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.val;
+
+/**
+ * Keyed reordering of a list in place.
+ *
+ * Elements already in the right relative order, the longest increasing run of their
+ * positions, stay where they are; only the displaced ones are removed and inserted
+ * at their new places. Moving one element of an observable list fires one removal
+ * and one addition, instead of clearing and refilling the whole list.
+ */
+public class Reorder {
+
+  /**
+   * Puts the elements in the order of the keys; elements with keys not listed are
+   * dropped, keys without an element are skipped. Keys are expected to be unique.
+   */
+  public static <K, V> void byKeys(List<V> list, List<K> keys, Function<V, K> key) {
+    val byKey = new HashMap<K, V>();
+    for (V v : list)
+      byKey.put(key.apply(v), v);
+    val target = new ArrayList<V>(keys.size());
+    for (K k : keys) {
+      val v = byKey.get(k);
+      if (v != null)
+        target.add(v);
+    }
+    val wanted = new HashSet<K>(keys);
+    for (int i = list.size() - 1; i >= 0; i--)
+      if (!wanted.contains(key.apply(list.get(i))))
+        list.remove(i);
+
+    val position = new HashMap<K, Integer>();
+    for (int i = 0; i < list.size(); i++)
+      position.put(key.apply(list.get(i)), i);
+    val positions = new int[target.size()];
+    for (int i = 0; i < positions.length; i++)
+      positions[i] = position.get(key.apply(target.get(i)));
+    val stable = new HashSet<K>();
+    for (int i : increasing(positions))
+      stable.add(key.apply(target.get(i)));
+    if (stable.size() == target.size())
+      return;
+
+    for (int i = list.size() - 1; i >= 0; i--)
+      if (!stable.contains(key.apply(list.get(i))))
+        list.remove(i);
+    for (int i = 0; i < target.size(); i++)
+      if (!stable.contains(key.apply(target.get(i))))
+        list.add(i, target.get(i));
+  }
+
+  /** indexes of a longest strictly increasing subsequence, in O(n log n) */
+  static List<Integer> increasing(int[] seq) {
+    // tails[l] is the index of the smallest tail of an increasing run of length l + 1
+    val tails = new int[seq.length];
+    val previous = new int[seq.length];
+    int length = 0;
+    for (int i = 0; i < seq.length; i++) {
+      int lo = 0, hi = length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (seq[tails[mid]] < seq[i])
+          lo = mid + 1;
+        else
+          hi = mid;
+      }
+      previous[i] = lo > 0 ? tails[lo - 1] : -1;
+      tails[lo] = i;
+      if (lo == length)
+        length++;
+    }
+    val run = new ArrayList<Integer>(length);
+    for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i])
+      run.add(i);
+    Collections.reverse(run);
+    return run;
+  }
+
+}
@@ -31,11 +31,14 @@ import static org.mockserver.model.HttpResponse.*;
 import static org.mockserver.model.Header.*;
 import static org.mockserver.model.JsonBody.*;
 import org.mockserver.model.*;
+import org.mockserver.matchers.Times;
+import org.mockserver.verify.VerificationTimes;
 
 import io.reactivex.rxjava3.observers.TestObserver;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.introspect.DefaultAccessorNamingStrategy;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
 import lombok.val;
 
@@ -52,19 +55,26 @@ public class HttpApiBusTest {
   Bus<RootUIMessage, RootUIMessage> uiBus = new PipeBus<>();
   TestObserver<RootUIMessage> uiSubscriber = TestObserver.create();
   Bus<ApiResponse, ApiRequest> sut; 
-  TestObserver<ApiResponse> apiSubscriber = TestObserver.create();
+  TestObserver<ApiResponse> apiSubscriber;
 
   @BeforeEach
   void setup(ClientAndServer client) {
     this.client = client;
     this.client.reset();
+    useTransport(TransportSettings.DEFAULT);
+    uiBus.in().subscribe(uiSubscriber);
+  }
+
+  /** Bus under test with the given transport, listened to by a fresh subscriber */
+  private void useTransport(TransportSettings transport) {
     sut = new HttpApiBus(
       String.format("http://localhost:%s/v1", client.getLocalPort()),
       loginBus,
-      uiBus.out()
+      uiBus.out(),
+      transport
     );
+    apiSubscriber = TestObserver.create();
     sut.in().subscribe(apiSubscriber);
-    uiBus.in().subscribe(uiSubscriber);
   }
 
   @AfterEach
@@ -129,14 +139,14 @@ public class HttpApiBusTest {
       .when(request().withMethod(GET).withPath("/v1/quiz").withHeaders(header("p", "notauth")))
       .respond(response().withStatusCode(401));
     emulLoginAs(new OutPerson("noname", "notauth"));
-    sut.out().accept(ApiRequest.GET_LIST);
+    sut.out().accept(ApiRequest.REFRESH_LIST);
     assertUiEvent(RootUIMessage.ACCESS_DENIED);
     assertNoApiEvents();
   }
 
   @Test @DisplayName("not logged in")
   void notLoggedIn() {
-    sut.out().accept(ApiRequest.GET_LIST);
+    sut.out().accept(ApiRequest.REFRESH_LIST);
     assertUiEvent(RootUIMessage.NOT_LOGGED_IN);
     assertNoApiEvents();
   }
@@ -146,12 +156,28 @@ public class HttpApiBusTest {
     client.when(request().withMethod(GET).withPath("/v1/quiz").withHeaders(header("p", "author1")))
       .respond(response().withStatusCode(200).withBody("{"));
     emulLoginAs(TestData.author1);
-    sut.out().accept(ApiRequest.GET_LIST);
+    sut.out().accept(ApiRequest.REFRESH_LIST);
     assertNoApiEvents();
     uiSubscriber.awaitCount(1);
     assertThat(uiSubscriber.values().get(0)).isInstanceOf(RootUIMessage.ProcessingError.class);
   }
 
+  @Test @DisplayName("request timeout")
+  void requestTimeout() {
+    useTransport(TransportSettings.DEFAULT
+      .withRequestTimeout(java.time.Duration.ofMillis(200))
+      .withRetries(0)
+      .withMaxConcurrentStreams(1));
+    client.when(request().withMethod(GET).withPath("/v1/quiz").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withBody(toJson(TestData.list))
+        .withDelay(TimeUnit.SECONDS, 2));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(ApiRequest.REFRESH_LIST);
+    uiSubscriber.awaitCount(1);
+    assertThat(uiSubscriber.values().get(0)).isInstanceOf(RootUIMessage.ProcessingError.class);
+    assertNoApiEvents();
+  }
+
   private void emulLoginAs(OutPerson user) {
     loginBus.emulInCT(new LoginEvent.Success(user.id(), user));
   }
@@ -164,14 +190,105 @@ public class HttpApiBusTest {
     }
   }
 
-  @Test @DisplayName("get list")
-  void getList() throws Exception {
+  @Test @DisplayName("get page with shared persons")
+  void getPageInterned() throws Exception {
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withBody(toJson(new OutQuizPage(TestData.list, null))));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null));
+    apiSubscriber.awaitCount(1);
+    val list = ((ApiResponse.QuizPage) apiSubscriber.values().get(0)).list();
+    assertThat(list.get(0).curator()).isSameAs(list.get(3).curator());
+    assertThat(list.get(0).inspectors()).isSameAs(list.get(1).inspectors());
+  }
+
+  @Test @DisplayName("refresh list since the sync token of the first page")
+  void refreshList() throws Exception {
+    val changed = TestData.list.get(1).withObsolete(true);
+    val first = ApiRequest.ListQuery.FIRST;
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz").withHeaders(header("p", "author1"))
+        .withQueryStringParameter("since", "5"))
+      .respond(response().withStatusCode(200).withHeader("Sync-Token", "6")
+        .withBody(toJson(List.of(changed))));
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz").withHeaders(header("p", "author1"))
+        .withQueryStringParameter("limit", "100"))
+      .respond(response().withStatusCode(200).withHeader("Sync-Token", "5")
+        .withBody(toJson(new OutQuizPage(TestData.list, null))));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.GetPage(first, null));
+    apiSubscriber.awaitCount(1);
+    sut.out().accept(ApiRequest.REFRESH_LIST);
+    assertApiEvent(new ApiResponse.QuizPage(first, null, TestData.list, null),
+      new ApiResponse.QuizListDelta(List.of(changed)));
+  }
+
+  @Test @DisplayName("get page of list")
+  void getPage() throws Exception {
+    val query = ApiRequest.ListQuery.FIRST.withLimit(2).withSort("title").withState("Composing")
+      .withObsolete(false).withDescending(true);
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz").withHeaders(header("p", "author1"))
+        .withQueryStringParameter("limit", "2")
+        .withQueryStringParameter("sort", "title")
+        .withQueryStringParameter("after", "a b")
+        .withQueryStringParameter("state", "Composing")
+        .withQueryStringParameter("obsolete", "false")
+        .withQueryStringParameter("desc", "true"))
+      .respond(response().withStatusCode(200)
+        .withBody(toJson(new OutQuizPage(TestData.list.subList(0, 1), null))));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.GetPage(query, "a b"));
+    assertApiEvent(new ApiResponse.QuizPage(query, "a b", TestData.list.subList(0, 1), null));
+  }
+
+  @Test @DisplayName("report failed page")
+  void getPageFailed() throws Exception {
+    client.when(request().withMethod(GET).withPath("/v1/quiz").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withBody("{"));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, "q2"));
+    assertApiEvent(new ApiResponse.RequestFailed(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, "q2")));
+    uiSubscriber.awaitCount(1);
+    assertThat(uiSubscriber.values().get(0)).isInstanceOf(RootUIMessage.ProcessingError.class);
+  }
+
+  @Test @DisplayName("get page in cbor")
+  void getPageCbor() throws Exception {
+    useTransport(TransportSettings.DEFAULT.withWireFormat(TransportSettings.WireFormat.CBOR));
+    val cbor = new ObjectMapper(new CBORFactory());
+    cbor.setAccessorNaming(new DefaultAccessorNamingStrategy.Provider().withGetterPrefix(""));
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz")
+        .withHeaders(header("p", "author1"), header("Accept", "application/cbor")))
+      .respond(response().withStatusCode(200)
+        .withHeader("Content-Type", "application/cbor")
+        .withBody(cbor.writeValueAsBytes(new OutQuizPage(TestData.list, null))));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null));
+    assertApiEvent(new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null));
+  }
+
+  @Test @DisplayName("record call metrics")
+  void callMetrics() throws Exception {
     client
       .when(request().withMethod(GET).withPath("/v1/quiz").withHeaders(header("p", "author1")))
       .respond(response().withStatusCode(200).withBody(toJson(TestData.list)));
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz/q1").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(422).withBody(toJson(
+        new OutError(new OutErrorReason(2010, "quiz not found"), List.of()))));
     emulLoginAs(TestData.author1);
-    sut.out().accept(ApiRequest.GET_LIST);
-    assertApiEvent(new ApiResponse.QuizList(TestData.list));
+    sut.out().accept(ApiRequest.REFRESH_LIST);
+    sut.out().accept(new ApiRequest.GetQuiz("q1"));
+    apiSubscriber.awaitCount(1);
+    uiSubscriber.awaitCount(2);
+    val rows = ((HttpApiBus) sut).metrics().snapshot();
+    assertThat(rows).extracting(r -> r.call(), r -> r.status(), r -> r.count(), r -> r.errors())
+      .containsExactly(tuple("GetQuiz", 422, 1L, 1L), tuple("REFRESH_LIST", 200, 1L, 0L));
+    assertThat(((HttpApiBus) sut).metrics().getRequestCount()).isEqualTo(2);
   }
 
   @Test @DisplayName("get full quiz")
@@ -182,6 +299,129 @@ public class HttpApiBusTest {
     emulLoginAs(TestData.author1);
     sut.out().accept(new ApiRequest.GetQuiz("q1"));
     assertApiEvent(new ApiResponse.FullQuiz(TestData.fullQuiz1));
+    client.verify(request().withPath("/v1/quiz/q1").withQueryStringParameter("summary", "true"));
+  }
+
+  @Test @DisplayName("load section")
+  void loadSection() {
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz/q1/sections/q1-2")
+        .withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withBody(toJson(TestData.section2)));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.LoadSection("q1", "q1-2"));
+    assertApiEvent(new ApiResponse.SectionLoaded("q1", TestData.section2));
+  }
+
+  @Test @DisplayName("coalesce identical in-flight reads")
+  void coalesceReads() throws Exception {
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz/q1").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withBody(toJson(TestData.fullQuiz1))
+        .withDelay(TimeUnit.MILLISECONDS, 300));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.GetQuiz("q1"));
+    sut.out().accept(new ApiRequest.GetQuiz("q1"));
+    sut.out().accept(new ApiRequest.GetQuiz("q1"));
+    assertApiEvent(new ApiResponse.FullQuiz(TestData.fullQuiz1));
+    apiSubscriber.await(500, TimeUnit.MILLISECONDS);
+    apiSubscriber.assertValueCount(1);
+    client.verify(request().withPath("/v1/quiz/q1"), VerificationTimes.exactly(1));
+  }
+
+  @Test @DisplayName("replay cached response on not modified")
+  void notModified() throws Exception {
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz/q1").withHeaders(header("p", "author1"),
+          header("If-None-Match", "\"t1\"")))
+      .respond(response().withStatusCode(304));
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz/q1").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withHeader("ETag", "\"t1\"")
+        .withBody(toJson(TestData.fullQuiz1)));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.GetQuiz("q1"));
+    apiSubscriber.awaitCount(1);
+    sut.out().accept(new ApiRequest.GetQuiz("q1"));
+    assertApiEvent(new ApiResponse.FullQuiz(TestData.fullQuiz1),
+      new ApiResponse.FullQuiz(TestData.fullQuiz1));
+    client.verify(request().withPath("/v1/quiz/q1").withHeader("If-None-Match", "\"t1\""),
+      VerificationTimes.exactly(1));
+  }
+
+  @Test @DisplayName("batch edits within window")
+  void batchEdits() throws Exception {
+    useTransport(TransportSettings.DEFAULT.withBatchWindow(java.time.Duration.ofMillis(100)));
+    val newOrder = List.of("4", "1", "3", "2");
+    client
+      .when(request().withMethod(POST).withPath("/v1/batch").withHeaders(header("p", "curator"))
+        .withBody(json(toJson(List.of(
+          new InBatchCommand("moveItem", null, "q1-1", "4", null, true),
+          new InBatchCommand("addAuthor", "q1", null, null, "author3", null))))))
+      .respond(response().withStatusCode(200).withBody(
+        "[{\"status\":200,\"body\":" + toJson(new OutStrList(newOrder)) + "}," +
+        "{\"status\":204}]"));
+    emulLoginAs(TestData.curator);
+    sut.out().accept(new ApiRequest.MoveItem("q1-1", "4", true));
+    sut.out().accept(new ApiRequest.AddAuthor("q1", "author3"));
+    assertUiClear();
+    assertApiEvent(new ApiResponse.ItemMoved("q1-1", newOrder),
+      new ApiResponse.RequestConfirmed(new ApiRequest.MoveItem("q1-1", "4", true)),
+      new ApiResponse.AuthorAdded("q1", "author3"),
+      new ApiResponse.RequestConfirmed(new ApiRequest.AddAuthor("q1", "author3")));
+  }
+
+  @Test @DisplayName("fail batch with results missing")
+  void batchResultsMissing() throws Exception {
+    useTransport(TransportSettings.DEFAULT.withBatchWindow(java.time.Duration.ofMillis(100)));
+    client
+      .when(request().withMethod(POST).withPath("/v1/batch").withHeaders(header("p", "curator")))
+      .respond(response().withStatusCode(200).withBody("[{\"status\":204}]"));
+    emulLoginAs(TestData.curator);
+    sut.out().accept(new ApiRequest.MoveItem("q1-1", "4", true));
+    sut.out().accept(new ApiRequest.AddAuthor("q1", "author3"));
+    assertApiEvent(new ApiResponse.RequestFailed(new ApiRequest.MoveItem("q1-1", "4", true)),
+      new ApiResponse.RequestFailed(new ApiRequest.AddAuthor("q1", "author3")));
+    uiSubscriber.awaitCount(1);
+    assertThat(uiSubscriber.values().get(0)).isInstanceOf(RootUIMessage.ProcessingError.class);
+  }
+
+  @Test @DisplayName("fail batch when logged out within window")
+  void batchLoggedOut() throws Exception {
+    useTransport(TransportSettings.DEFAULT.withBatchWindow(java.time.Duration.ofMillis(100)));
+    emulLoginAs(TestData.curator);
+    sut.out().accept(new ApiRequest.MoveItem("q1-1", "4", true));
+    loginBus.emulInCT(new LoginEvent.LoggedOut(TestData.curator.id(), TestData.curator));
+    assertApiEvent(new ApiResponse.RequestFailed(new ApiRequest.MoveItem("q1-1", "4", true)));
+    uiSubscriber.awaitCount(1);
+    assertThat(uiSubscriber.values().get(0)).isInstanceOf(RootUIMessage.ProcessingError.class);
+  }
+
+  @Test @DisplayName("retry unavailable with the same idempotency key")
+  void retry() throws Exception {
+    useTransport(TransportSettings.DEFAULT.withRetryBackoff(java.time.Duration.ofMillis(10)));
+    client
+      .when(request().withMethod(PATCH).withPath("/v1/quiz/q1/ready"), Times.exactly(2))
+      .respond(response().withStatusCode(503));
+    client
+      .when(request().withMethod(PATCH).withPath("/v1/quiz/q1/ready").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(204));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.SetReady("q1"));
+    assertUiClear();
+    assertApiEvent(new ApiResponse.ReadySet("q1", "author1"));
+    val requests = client.retrieveRecordedRequests(request().withPath("/v1/quiz/q1/ready"));
+    assertThat(requests).hasSize(3);
+    assertThat(Arrays.stream(requests).map(r -> r.getFirstHeader("Idempotency-Key")).distinct())
+      .hasSize(1).doesNotContain("");
+  }
+
+  @Test @DisplayName("bound retry backoff")
+  void retryBackoff() {
+    assertThat(HttpApiBus.backoff(java.time.Duration.ZERO, 0)).isEqualTo(1);
+    assertThat(HttpApiBus.backoff(java.time.Duration.ZERO, 3)).isBetween(1L, 8L);
+    assertThat(HttpApiBus.backoff(java.time.Duration.ofMillis(200), 100)).isBetween(1L, 60_000L);
+    assertThat(HttpApiBus.backoff(java.time.Duration.ofDays(1), 2)).isBetween(1L, 60_000L);
   }
 
   @Test @DisplayName("create quiz")
@@ -260,7 +500,8 @@ public class HttpApiBusTest {
     emulLoginAs(TestData.curator);
     sut.out().accept(new ApiRequest.AddAuthor("q1", "author3"));
     assertUiClear();
-    assertApiEvent(new ApiResponse.AuthorAdded("q1", "author3"));
+    assertApiEvent(new ApiResponse.AuthorAdded("q1", "author3"),
+      new ApiResponse.RequestConfirmed(new ApiRequest.AddAuthor("q1", "author3")));
   }
 
   @Test @DisplayName("remove author")
@@ -272,7 +513,8 @@ public class HttpApiBusTest {
     emulLoginAs(TestData.curator);
     sut.out().accept(new ApiRequest.RemoveAuthor("q3", "author1"));
     assertUiClear();
-    assertApiEvent(new ApiResponse.AuthorRemoved("q3", "author1"));
+    assertApiEvent(new ApiResponse.AuthorRemoved("q3", "author1"),
+      new ApiResponse.RequestConfirmed(new ApiRequest.RemoveAuthor("q3", "author1")));
   }
 
   @Test @DisplayName("add inspector")
@@ -284,7 +526,8 @@ public class HttpApiBusTest {
     emulLoginAs(TestData.curator);
     sut.out().accept(new ApiRequest.AddInspector("q1", "inspector3"));
     assertUiClear();
-    assertApiEvent(new ApiResponse.InspectorAdded("q1", "inspector3"));
+    assertApiEvent(new ApiResponse.InspectorAdded("q1", "inspector3"),
+      new ApiResponse.RequestConfirmed(new ApiRequest.AddInspector("q1", "inspector3")));
   }
 
   @Test @DisplayName("remove inspector")
@@ -295,7 +538,8 @@ public class HttpApiBusTest {
     emulLoginAs(TestData.curator);
     sut.out().accept(new ApiRequest.RemoveInspector("q3", "inspector1"));
     assertUiClear();
-    assertApiEvent(new ApiResponse.InspectorRemoved("q3", "inspector1"));
+    assertApiEvent(new ApiResponse.InspectorRemoved("q3", "inspector1"),
+      new ApiResponse.RequestConfirmed(new ApiRequest.RemoveInspector("q3", "inspector1")));
   }
 
   @Test @DisplayName("create section")
@@ -331,7 +575,8 @@ public class HttpApiBusTest {
     emulLoginAs(TestData.author3);
     sut.out().accept(new ApiRequest.MoveSection(quizId, sc, up));
     assertUiClear();
-    assertApiEvent(new ApiResponse.SectionMoved(quizId, newOrder));
+    assertApiEvent(new ApiResponse.SectionMoved(quizId, newOrder),
+      new ApiResponse.RequestConfirmed(new ApiRequest.MoveSection(quizId, sc, up)));
   }
 
   @Test @DisplayName("remove section")
@@ -342,7 +587,8 @@ public class HttpApiBusTest {
     emulLoginAs(TestData.author1);
     sut.out().accept(new ApiRequest.RemoveSection("q1-2", "q1"));
     assertUiClear();
-    assertApiEvent(new ApiResponse.SectionRemoved("q1", "q1-2"));
+    assertApiEvent(new ApiResponse.SectionRemoved("q1", "q1-2"),
+      new ApiResponse.RequestConfirmed(new ApiRequest.RemoveSection("q1-2", "q1")));
   }
   
   private static Stream<Arguments> readinessAndApprovals_args() {
@@ -432,6 +678,31 @@ public class HttpApiBusTest {
     assertNoApiEvents();
   }
 
+  @Test @DisplayName("save item gzipped above threshold")
+  void saveItemCompressed() {
+    useTransport(TransportSettings.DEFAULT.withCompressThreshold(16));
+    client
+      .when(request().withMethod(PUT).withPath("/v1/section/q1-1/items")
+        .withHeaders(header("p", "author1"), header("Content-Encoding", "gzip")))
+      .respond(response().withStatusCode(204));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.SaveItem("q1-1", TestData.item1));
+    assertUiEvent(new RootUIMessage.InfoMessage("Item saved"));
+    assertNoApiEvents();
+  }
+
+  @Test @DisplayName("get full quiz gzipped")
+  void getQuizCompressed() throws Exception {
+    client
+      .when(request().withMethod(GET).withPath("/v1/quiz/q1")
+        .withHeaders(header("p", "author1"), header("Accept-Encoding", "gzip")))
+      .respond(response().withStatusCode(200).withHeader("Content-Encoding", "gzip")
+        .withBody(Compression.gzip(toJson(TestData.fullQuiz1).getBytes(java.nio.charset.StandardCharsets.UTF_8))));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.GetQuiz("q1"));
+    assertApiEvent(new ApiResponse.FullQuiz(TestData.fullQuiz1));
+  }
+
   @Test @DisplayName("remove item")
   void removeItem() {
     client
@@ -441,7 +712,8 @@ public class HttpApiBusTest {
     emulLoginAs(TestData.author3);
     sut.out().accept(new ApiRequest.RemoveItem("q1-1", "5"));
     assertUiClear();
-    assertApiEvent(new ApiResponse.ItemRemoved("q1-1", "5"));
+    assertApiEvent(new ApiResponse.ItemRemoved("q1-1", "5"),
+      new ApiResponse.RequestConfirmed(new ApiRequest.RemoveItem("q1-1", "5")));
   }
 
   @Test @DisplayName("move item")
@@ -454,7 +726,89 @@ public class HttpApiBusTest {
     emulLoginAs(TestData.author1);
     sut.out().accept(new ApiRequest.MoveItem("q1-1", "4", true));
     assertUiClear();
-    assertApiEvent(new ApiResponse.ItemMoved("q1-1", newOrder));
+    assertApiEvent(new ApiResponse.ItemMoved("q1-1", newOrder),
+      new ApiResponse.RequestConfirmed(new ApiRequest.MoveItem("q1-1", "4", true)));
+  }
+
+  @Test @DisplayName("rejected move item")
+  void moveItemFailed() {
+    val error = new OutError(new OutErrorReason(1122, "some error"), List.of("clue1"));
+    client
+      .when(request().withMethod(PATCH).withPath("/v1/section/q1-1/items/4")
+        .withHeaders(header("p", "author1")).withQueryStringParameter("up", "true"))
+      .respond(response().withStatusCode(422).withBody(toJson(error)));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.MoveItem("q1-1", "4", true));
+    assertApiEvent(new ApiResponse.RequestFailed(new ApiRequest.MoveItem("q1-1", "4", true)));
+    assertUiEvent(new RootUIMessage.ApiError(error));
+  }
+
+  private static String sse(String event, String data) {
+    return "event:" + event + "\ndata:" + data + "\n\n";
+  }
+
+  @Test @DisplayName("publish events pushed by the server")
+  void pushedEvents() {
+    client.when(request().withMethod(GET).withPath("/v1/events").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withHeader("Content-Type", "text/event-stream")
+        .withBody(sse("readySet", "{\"quiz\":\"q1\",\"event\":\"readySet\",\"person\":\"author2\"}") +
+          ":\n\n" +
+          sse("sectionMoved", "{\"quiz\":\"q1\",\"event\":\"sectionMoved\",\"sc\":\"2\",\"scs\":[\"2\",\"1\"]}") +
+          sse("created", "{\"quiz\":\"q2\",\"event\":\"created\"}")));
+    emulLoginAs(TestData.author1);
+    assertApiEvent(new ApiResponse.ReadySet("q1", "author2"),
+      new ApiResponse.SectionMoved("q1", List.of("2", "1")));
+  }
+
+  @Test @DisplayName("resync when the server lost events")
+  void pushedResync() {
+    client.when(request().withMethod(GET).withPath("/v1/events").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withHeader("Content-Type", "text/event-stream")
+        .withBody(sse("resync", "{\"event\":\"resync\"}")));
+    emulLoginAs(TestData.author1);
+    assertApiEvent(ApiResponse.RESYNC);
+  }
+
+  @Test @DisplayName("resync after reopening the event stream")
+  void reopenedResync() {
+    useTransport(TransportSettings.DEFAULT.withPushReconnect(java.time.Duration.ofMillis(300)));
+    client.when(request().withMethod(GET).withPath("/v1/events").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withHeader("Content-Type", "text/event-stream")
+        .withBody(sse("readySet", "{\"quiz\":\"q1\",\"event\":\"readySet\",\"person\":\"author2\"}")));
+    emulLoginAs(TestData.author1);
+    apiSubscriber.awaitCount(3);
+    assertThat(apiSubscriber.values().subList(0, 3)).containsExactly(
+      new ApiResponse.ReadySet("q1", "author2"), ApiResponse.RESYNC, new ApiResponse.ReadySet("q1", "author2"));
+  }
+
+  @Test @DisplayName("drop pushed copies of own edits")
+  void pushedEcho() throws Exception {
+    client.when(request().withMethod(GET).withPath("/v1/events").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withHeader("Content-Type", "text/event-stream")
+        .withBody(sse("readySet", "{\"quiz\":\"q1\",\"event\":\"readySet\",\"person\":\"author1\"}"))
+        .withDelay(TimeUnit.MILLISECONDS, 500));
+    client.when(request().withMethod(PATCH).withPath("/v1/quiz/q1/ready").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(204));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.SetReady("q1"));
+    assertApiEvent(new ApiResponse.ReadySet("q1", "author1"));
+    apiSubscriber.await(1000, TimeUnit.MILLISECONDS);
+    apiSubscriber.assertValueCount(1);
+  }
+
+  @Test @DisplayName("drop responses to own edits pushed before")
+  void pushedBeforeResponse() throws Exception {
+    client.when(request().withMethod(GET).withPath("/v1/events").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(200).withHeader("Content-Type", "text/event-stream")
+        .withBody(sse("readySet", "{\"quiz\":\"q1\",\"event\":\"readySet\",\"person\":\"author1\"}")));
+    client.when(request().withMethod(PATCH).withPath("/v1/quiz/q1/ready").withHeaders(header("p", "author1")))
+      .respond(response().withStatusCode(204).withDelay(TimeUnit.MILLISECONDS, 500));
+    emulLoginAs(TestData.author1);
+    sut.out().accept(new ApiRequest.SetReady("q1"));
+    assertApiEvent(new ApiResponse.ReadySet("q1", "author1"));
+    uiSubscriber.awaitCount(1);
+    apiSubscriber.await(500, TimeUnit.MILLISECONDS);
+    apiSubscriber.assertValueCount(1);
   }
 
   static String GET = "GET";
@@ -465,4 +819,3 @@ public class HttpApiBusTest {
   static String HEAD = "HEAD";
 
 }
-
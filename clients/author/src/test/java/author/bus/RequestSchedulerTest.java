@@ -0,0 +1,83 @@
+package author.bus;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+import static author.bus.RequestScheduler.Priority.*;
+
+import lombok.val;
+
+public class RequestSchedulerTest {
+
+  List<String> started = Collections.synchronizedList(new ArrayList<>());
+  Map<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+
+  private CompletableFuture<String> submit(RequestScheduler sut, String name,
+      RequestScheduler.Priority priority, String... keys) {
+    return sut.submit(Set.of(keys), priority, () -> {
+      started.add(name);
+      val f = new CompletableFuture<String>();
+      pending.put(name, f);
+      return f;
+    });
+  }
+
+  private void complete(String name) {
+    pending.remove(name).complete(name);
+  }
+
+  @Test @DisplayName("limit in-flight tasks")
+  void maxInFlight() throws Exception {
+    val sut = new RequestScheduler(2);
+    val a = submit(sut, "a", WRITE);
+    submit(sut, "b", WRITE);
+    submit(sut, "c", WRITE);
+    assertThat(started).containsExactly("a", "b");
+    complete("a");
+    assertThat(a.get(1, TimeUnit.SECONDS)).isEqualTo("a");
+    assertThat(started).containsExactly("a", "b", "c");
+  }
+
+  @Test @DisplayName("run tasks of one entity in submission order")
+  void entityOrder() {
+    val sut = new RequestScheduler(10);
+    submit(sut, "move", WRITE, "section/s1");
+    submit(sut, "save", WRITE, "section/s1");
+    submit(sut, "other", WRITE, "section/s2");
+    submit(sut, "read", READ, "section/s1");
+    assertThat(started).containsExactly("move", "other");
+    complete("move");
+    assertThat(started).containsExactly("move", "other", "save");
+    complete("save");
+    assertThat(started).containsExactly("move", "other", "save", "read");
+  }
+
+  @Test @DisplayName("start reads ahead of writes")
+  void readsFirst() {
+    val sut = new RequestScheduler(1);
+    submit(sut, "w1", WRITE);
+    submit(sut, "w2", WRITE);
+    submit(sut, "r1", READ);
+    assertThat(started).containsExactly("w1");
+    complete("w1");
+    assertThat(started).containsExactly("w1", "r1");
+    complete("r1");
+    assertThat(started).containsExactly("w1", "r1", "w2");
+  }
+
+  @Test @DisplayName("release slot of failed task")
+  void failedTask() {
+    val sut = new RequestScheduler(1);
+    val failed = sut.submit(Set.of(), WRITE, () -> {
+      throw new IllegalStateException("failed");
+    });
+    submit(sut, "next", WRITE);
+    assertThat(failed).isCompletedExceptionally();
+    assertThat(started).containsExactly("next");
+  }
+
+}
@@ -52,7 +52,8 @@ class MainPaneTest {
 
   @Test @DisplayName("updated on login")
   void updatedOnLogin(FxRobot robot) throws Exception {
-    val onGetList = apiBus.on(ApiRequest.GET_LIST, new ApiResponse.QuizList(TestData.list));
+    val onGetList = apiBus.on(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null),
+      new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null));
     loginBus.emulIn(new LoginEvent.Success("author1", TestData.author1));
     assertThat(robot.lookup("#username").queryLabeled()).hasText("author1 name");
     assertThat(robot.lookup("#mainList").queryTableView()).hasExactlyNumRows(4);
@@ -67,7 +68,8 @@ class MainPaneTest {
   void gotoQuiz(FxRobot robot) {
     val onGetQuiz = apiBus.on(new ApiRequest.GetQuiz("q3"), 
       new ApiResponse.FullQuiz(TestData.fullQuiz1.withState("XYZ")));
-    val onGetList = apiBus.on(ApiRequest.GET_LIST, new ApiResponse.QuizList(TestData.list));
+    val onGetList = apiBus.on(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null),
+      new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null));
     loginBus.emulIn(new LoginEvent.Success("author1", TestData.author1));
     val go = robot.from(robot.lookup("q3 title").query().getParent()).lookup(".goto-quiz").query();
     robot.clickOn(go);
@@ -83,6 +85,23 @@ class MainPaneTest {
 
   }
 
+  @Test @DisplayName("fetches the list and the open quiz again on resync")
+  void resync(FxRobot robot) {
+    val onGetQuiz = apiBus.on(new ApiRequest.GetQuiz("q1"),
+      new ApiResponse.FullQuiz(TestData.fullQuiz1));
+    val onGetList = apiBus.on(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null),
+      new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null));
+    loginBus.emulIn(new LoginEvent.Success("author1", TestData.author1));
+    val go = robot.from(robot.lookup("q1 title").query().getParent()).lookup(".goto-quiz").query();
+    robot.clickOn(go);
+    onGetList.free();
+    onGetQuiz.free();
+    while (apiBus.poll() != null);
+    apiBus.emulIn(ApiResponse.RESYNC);
+    assertThat(apiBus.poll()).isSameAs(ApiRequest.REFRESH_LIST);
+    assertThat(apiBus.poll()).isEqualTo(new ApiRequest.GetQuiz("q1"));
+  }
+
   @Test @DisplayName("sends logout request on button click")
   void logout(FxRobot robot) {
     robot.clickOn("#logout");
@@ -91,7 +110,8 @@ class MainPaneTest {
     
     val onGetQuiz = apiBus.on(new ApiRequest.GetQuiz("q1"),
       new ApiResponse.FullQuiz(TestData.fullQuiz1));
-    val onGetList = apiBus.on(ApiRequest.GET_LIST, new ApiResponse.QuizList(TestData.list));
+    val onGetList = apiBus.on(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null),
+      new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null));
     val onOwnSection = apiBus.on(new ApiRequest.OwnSection("q1", "q1-1"),
       new ApiResponse.SectionOwned("q1", TestData.section1));
     val onDischarge = apiBus.on(new ApiRequest.DischargeSection("q1-1"),
@@ -113,7 +133,8 @@ class MainPaneTest {
   void gotoSection(FxRobot robot) throws Exception {
     val onGetQuiz = apiBus.on(new ApiRequest.GetQuiz("q1"),
       new ApiResponse.FullQuiz(TestData.fullQuiz1));
-    val onGetList = apiBus.on(ApiRequest.GET_LIST, new ApiResponse.QuizList(TestData.list));
+    val onGetList = apiBus.on(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null),
+      new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null));
     loginBus.emulIn(new LoginEvent.Success("author1", TestData.author1));
     val onOwnSection = apiBus.on(new ApiRequest.OwnSection("q1", "q1-2"),
       new ApiResponse.SectionOwned("q1", TestData.section2));
@@ -136,7 +157,8 @@ class MainPaneTest {
   void gotoQuizBackFromSection(FxRobot robot) throws Exception {
     val onGetQuiz = apiBus.on(new ApiRequest.GetQuiz("q1"),
       new ApiResponse.FullQuiz(TestData.fullQuiz1));
-    val onGetList = apiBus.on(ApiRequest.GET_LIST, new ApiResponse.QuizList(TestData.list));
+    val onGetList = apiBus.on(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null),
+      new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null));
     val onOwnSection = apiBus.on(new ApiRequest.OwnSection("q1", "q1-1"),
       new ApiResponse.SectionOwned("q1", TestData.section1));
     val onDischarge = apiBus.on(new ApiRequest.DischargeSection("q1-1"),
@@ -157,7 +179,8 @@ class MainPaneTest {
   void autoDischarge(FxRobot robot) {
     val onGetQuiz = apiBus.on(new ApiRequest.GetQuiz("q1"),
       new ApiResponse.FullQuiz(TestData.fullQuiz1));
-    val onGetList = apiBus.on(ApiRequest.GET_LIST, new ApiResponse.QuizList(TestData.list));
+    val onGetList = apiBus.on(new ApiRequest.GetPage(ApiRequest.ListQuery.FIRST, null),
+      new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null));
     val onOwnSection = apiBus.on(new ApiRequest.OwnSection("q1", "q1-1"),
       new ApiResponse.SectionOwned("q1", TestData.section1));
     val onDischarge = apiBus.on(new ApiRequest.DischargeSection("q1-1"),
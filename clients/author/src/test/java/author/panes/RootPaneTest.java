@@ -18,8 +18,10 @@ import javafx.scene.input.*;
 import java.util.*;
 import java.util.stream.*;
 import java.util.function.*;
+import java.util.concurrent.*;
 
 import static org.testfx.assertions.api.Assertions.*;
+import static org.testfx.util.WaitForAsyncUtils.*;
 import org.assertj.core.api.*;
 
 import author.events.*;
@@ -65,4 +67,38 @@ class RootPaneTest {
     assertThat(robot.lookup("#loginPane").tryQuery()).isPresent();
   }
 
+  @Test @DisplayName("attaches the main pane built in the background")
+  void background() throws Exception {
+    val sut = asyncFx(() -> new RootPane(apiBus, loginBus, rootUiBus, ForkJoinPool.commonPool())).get();
+    sut.ready().get(10, TimeUnit.SECONDS);
+    assertThat(sut.lookup("#loginPane").isDisabled()).isFalse();
+    loginBus.emulIn(new LoginEvent.Success("author1", TestData.author1));
+    assertThat(sut.getCenter().getId()).isEqualTo("mainPane");
+  }
+
+  @Test @DisplayName("builds the main pane on the FX thread when the background build fails")
+  void backgroundFailed() throws Exception {
+    val sut = asyncFx(() -> new RootPane(
+      loginBus,
+      CompletableFuture.<MainPane>failedFuture(new IllegalStateException("off the FX thread")),
+      () -> new MainPane(apiBus, loginBus, rootUiBus))).get();
+    sut.ready().get(10, TimeUnit.SECONDS);
+    assertThat(sut.lookup("#loginPane").isDisabled()).isFalse();
+    loginBus.emulIn(new LoginEvent.Success("author1", TestData.author1));
+    assertThat(sut.getCenter().getId()).isEqualTo("mainPane");
+  }
+
+  @Test @DisplayName("tells on the login pane when the main pane cannot be built")
+  void cannotBuild() throws Exception {
+    val sut = asyncFx(() -> new RootPane(
+      loginBus,
+      CompletableFuture.<MainPane>failedFuture(new IllegalStateException("off the FX thread")),
+      () -> { throw new IllegalStateException("on the FX thread"); })).get();
+    assertThatThrownBy(() -> sut.ready().get(10, TimeUnit.SECONDS))
+      .isInstanceOf(ExecutionException.class);
+    waitForFxEvents();
+    assertThat(sut.lookup("#loginPane").isDisabled()).isTrue();
+    assertThat(((Label) sut.lookup("#message")).getText()).isNotEmpty();
+  }
+
 }
@@ -31,7 +31,7 @@ class CreateButtonBoxTest {
   @Start
   private void start(Stage stage) throws Exception {
     Node sut = new CreateButtonBox(apiBus, uiBus);
-    stage.setScene(new Scene((Parent) sut, 400, 40));
+    stage.setScene(new Scene((Parent) sut, 700, 40));
     stage.show();
   }
 
@@ -41,9 +41,15 @@ class CreateButtonBoxTest {
     assertThat(uiBus.poll()).isSameAs(Quizzes.SHOW_CREATE_PANE);
   }
 
-  @Test @DisplayName("send 'get list' request on button click")
+  @Test @DisplayName("send 'refresh list' request on button click")
   void refreshButton(FxRobot robot) {
     robot.clickOn(robot.lookup("#refresh").queryButton());
-    assertThat(apiBus.poll()).isSameAs(ApiRequest.GET_LIST);
+    assertThat(apiBus.poll()).isSameAs(ApiRequest.REFRESH_LIST);
+  }
+
+  @Test @DisplayName("send 'filter list' message on hiding obsolete")
+  void hideObsolete(FxRobot robot) {
+    robot.clickOn("#hideObsolete");
+    assertThat(uiBus.poll()).isEqualTo(new Quizzes.FilterList(null, false));
   }
 }
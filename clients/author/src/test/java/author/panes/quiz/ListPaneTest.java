@@ -13,11 +13,14 @@ import javafx.scene.input.KeyCode;
 import javafx.stage.Stage;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.mockito.Mockito.*;
 import static org.testfx.api.FxAssert.*;
 import static org.hamcrest.Matchers.*;
 import static org.testfx.assertions.api.Assertions.*;
+import static org.testfx.util.WaitForAsyncUtils.*;
 
 import author.panes.quiz.ListPane;
 import author.panes.quiz.Quizzes;
@@ -38,6 +41,8 @@ class ListPaneTest {
   TestBus<ApiResponse, ApiRequest> apiBus = new TestBus<>();
   TestBus<Quizzes.UIMessage, Quizzes.UIMessage> uiBus = new TestBus<>();
 
+  ApiResponse wholeList = new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null);
+
   @Start
   private void start(Stage stage) {
     Node sut = Factories.nodeWith(new ListPane(apiBus, uiBus));
@@ -48,7 +53,7 @@ class ListPaneTest {
   @Test @DisplayName("displays quiz list")
   void displayList(FxRobot robot) {
     Lookup lu = new Lookup(robot);
-    apiBus.emulIn(new ApiResponse.QuizList(TestData.list));
+    apiBus.emulIn(wholeList);
     assertThat(robot.lookup("#list").queryTableView())
       .hasExactlyNumRows(4)
       .containsRow("q1", "q1", "q1 title", "Composing", "")
@@ -56,13 +61,128 @@ class ListPaneTest {
       .containsRow("q3", "q3", "q3 title", "Released", "+")
       .containsRow("q4", "q4", "q4 title", "Released", "")
       ;
-    apiBus.emulIn(new ApiResponse.QuizList(TestData.list));
+    apiBus.emulIn(wholeList);
     assertThat(robot.lookup("#list").queryTableView()).hasExactlyNumRows(4);
   }
 
+  @Test @DisplayName("merges changed quizzes by id")
+  void mergeDelta(FxRobot robot) {
+    apiBus.emulIn(wholeList);
+    val q1 = TestData.list.get(0);
+    val added = new OutQuizListed("q5", "q5 title", false, q1.curator(), q1.authors(), q1.inspectors(), "Composing");
+    apiBus.emulIn(new ApiResponse.QuizListDelta(List.of(TestData.list.get(3).withObsolete(true), added)));
+    assertThat(robot.lookup("#list").queryTableView())
+      .hasExactlyNumRows(5)
+      .containsRow("q4", "q4", "q4 title", "Released", "+")
+      .containsRow("q5", "q5", "q5 title", "Composing", "");
+  }
+
+  @Test @DisplayName("places changed quizzes in list order and drops ones no longer matching")
+  void placeDelta(FxRobot robot) {
+    val released = ApiRequest.ListQuery.FIRST.withState("Released");
+    apiBus.emulIn(new ApiResponse.QuizPage(released, null, TestData.list.subList(2, 4), null));
+    val q3 = TestData.list.get(2);
+    val q4 = TestData.list.get(3);
+    val reviewed = new OutQuizListed("q4", "q4 title", false, q4.curator(), q4.authors(), q4.inspectors(), "Review");
+    val added = new OutQuizListed("q0", "q0 title", false, q3.curator(), q3.authors(), q3.inspectors(), "Released");
+    apiBus.emulIn(new ApiResponse.QuizListDelta(List.of(reviewed, added)));
+    assertThat(robot.lookup("#list").<OutQuizListed>queryTableView().getItems())
+      .extracting(OutQuizListed::id).containsExactly("q0", "q3");
+  }
+
+  @Test @DisplayName("keeps changed quizzes ordered after the last row for the next page")
+  void placeDeltaBeyond(FxRobot robot) {
+    val first = ApiRequest.ListQuery.FIRST;
+    apiBus.emulIn(new ApiResponse.QuizPage(first, null, TestData.list.subList(0, 2), "q2"));
+    val q1 = TestData.list.get(0);
+    val added = new OutQuizListed("q5", "q5 title", false, q1.curator(), q1.authors(), q1.inspectors(), "Composing");
+    apiBus.emulIn(new ApiResponse.QuizListDelta(List.of(added)));
+    assertThat(robot.lookup("#list").<OutQuizListed>queryTableView().getItems())
+      .extracting(OutQuizListed::id).containsExactly("q1", "q2");
+  }
+
+  @Test @DisplayName("requests first page in descending order")
+  void sortDescending(FxRobot robot) {
+    apiBus.emulIn(wholeList);
+    val list = robot.lookup("#list").<OutQuizListed>queryTableView();
+    val title = list.getColumns().stream().filter(c -> "title".equals(c.getId())).findAny().get();
+    asyncFx(() -> {
+      title.setSortType(TableColumn.SortType.DESCENDING);
+      list.getSortOrder().setAll(List.of(title));
+    });
+    waitForFxEvents();
+    assertThat(apiBus.poll()).isEqualTo(new ApiRequest.GetPage(
+      ApiRequest.ListQuery.FIRST.withSort("title").withDescending(true), null));
+  }
+
+  @Test @DisplayName("fetches the next page while the rows do not fill the table")
+  void fillPage(FxRobot robot) {
+    val first = ApiRequest.ListQuery.FIRST;
+    apiBus.emulIn(new ApiResponse.QuizPage(first, null, TestData.list.subList(0, 2), "q2"));
+    waitForFxEvents();
+    assertThat(apiBus.poll()).isEqualTo(new ApiRequest.GetPage(first, "q2"));
+  }
+
+  @Test @DisplayName("appends next pages and skips stale ones")
+  void displayPages(FxRobot robot) {
+    val first = ApiRequest.ListQuery.FIRST;
+    apiBus.emulIn(new ApiResponse.QuizPage(first, null, TestData.list.subList(0, 2), "q2"));
+    assertThat(robot.lookup("#list").queryTableView())
+      .hasExactlyNumRows(2)
+      .containsRow("q2", "q2", "q2 title", "Review", "");
+    apiBus.emulIn(new ApiResponse.QuizPage(first.withSort("title"), "q2", TestData.list.subList(2, 3), null));
+    assertThat(robot.lookup("#list").queryTableView()).hasExactlyNumRows(2);
+    apiBus.emulIn(new ApiResponse.QuizPage(first, "q2", TestData.list.subList(2, 4), null));
+    assertThat(robot.lookup("#list").queryTableView())
+      .hasExactlyNumRows(4)
+      .containsRow("q4", "q4", "q4 title", "Released", "");
+  }
+
+  @Test @DisplayName("requests first page on filter change")
+  void filterList(FxRobot robot) {
+    uiBus.emulIn(new Quizzes.FilterList("Review", false));
+    assertThat(apiBus.poll()).isEqualTo(new ApiRequest.GetPage(
+      ApiRequest.ListQuery.FIRST.withState("Review").withObsolete(false), null));
+  }
+
+  @Test @DisplayName("skips first pages of an earlier filter and starts over on an unasked one")
+  void staleFirstPage(FxRobot robot) {
+    val review = ApiRequest.ListQuery.FIRST.withState("Review").withObsolete(false);
+    uiBus.emulIn(new Quizzes.FilterList("Review", false));
+    apiBus.emulIn(new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null));
+    assertThat(robot.lookup("#list").queryTableView()).hasExactlyNumRows(0);
+    apiBus.emulIn(new ApiResponse.QuizPage(review, null, TestData.list.subList(1, 2), null));
+    assertThat(robot.lookup("#list").queryTableView())
+      .hasExactlyNumRows(1)
+      .containsRow("q2", "q2", "q2 title", "Review", "");
+    // as on login
+    apiBus.emulIn(wholeList);
+    assertThat(robot.lookup("#list").queryTableView()).hasExactlyNumRows(4);
+  }
+
+  @Test @DisplayName("fetches the next page again after it failed")
+  void failedPage(FxRobot robot) {
+    val q1 = TestData.list.get(0);
+    val page = IntStream.range(0, 100)
+      .mapToObj(i -> new OutQuizListed("q" + i, "title " + i, false, q1.curator(), q1.authors(), q1.inspectors(), "Composing"))
+      .collect(Collectors.toList());
+    val first = ApiRequest.ListQuery.FIRST;
+    apiBus.emulIn(new ApiResponse.QuizPage(first, null, page, "q99"));
+    val list = robot.lookup("#list").<OutQuizListed>queryTableView();
+    asyncFx(() -> list.scrollTo(99));
+    waitForFxEvents();
+    assertThat(apiBus.poll()).isEqualTo(new ApiRequest.GetPage(first, "q99"));
+    apiBus.emulIn(new ApiResponse.RequestFailed(new ApiRequest.GetPage(first, "q99")));
+    asyncFx(() -> list.scrollTo(0));
+    waitForFxEvents();
+    asyncFx(() -> list.scrollTo(99));
+    waitForFxEvents();
+    assertThat(apiBus.poll()).isEqualTo(new ApiRequest.GetPage(first, "q99"));
+  }
+
   @Test @DisplayName("sends 'goto quiz' message on link click")
   void gotoQuiz(FxRobot robot) {
-    apiBus.emulIn(new ApiResponse.QuizList(TestData.list));
+    apiBus.emulIn(wholeList);
     val go = robot.from(robot.lookup("q3 title").query().getParent()).lookup(".goto-quiz").query();
     robot.clickOn(go);
     assertThat(apiBus.poll()).isEqualTo(new ApiRequest.GetQuiz("q3"));
@@ -71,7 +191,7 @@ class ListPaneTest {
   @Test @DisplayName("reacts on got obsolete event")
   void obsoleteEvent(FxRobot robot) {
     Lookup lu = new Lookup(robot);
-    apiBus.emulIn(new ApiResponse.QuizList(TestData.list));
+    apiBus.emulIn(wholeList);
     assertThat(lu.table("#list"))
       .containsRow("q4", "q4", "q4 title", "Released", "");
     apiBus.emulIn(new ApiResponse.GotObsolete("q4"));
@@ -85,7 +205,7 @@ class ListPaneTest {
     apiBus.emulIn(new ApiResponse.PersonList(List.of(TestData.curator, TestData.author1, 
       TestData.author2, TestData.author3,
       TestData.inspector1, TestData.inspector2, TestData.inspector3)));
-    apiBus.emulIn(new ApiResponse.QuizList(TestData.list));
+    apiBus.emulIn(wholeList);
     assertThat(list.get(0).authors())
       .containsExactlyInAnyOrder(TestData.author1, TestData.author2);
     apiBus.emulIn(new ApiResponse.AuthorAdded("q1", TestData.author3.id()));
@@ -107,7 +227,7 @@ class ListPaneTest {
 
   @Test @DisplayName("sends show quiz message on quiz selection")
   void showQuiz(FxRobot robot) throws Exception {
-    apiBus.emulIn(new ApiResponse.QuizList(TestData.list));
+    apiBus.emulIn(wholeList);
     robot.clickOn(LabeledMatchers.hasText("q2"));
     assertThat(uiBus.poll()).isEqualTo(new Quizzes.ShowQuiz(TestData.list.get(1)));
     robot.press(KeyCode.CONTROL).clickOn(LabeledMatchers.hasText("q2"));
@@ -116,7 +236,7 @@ class ListPaneTest {
 
   @Test @DisplayName("adds row when new quiz created")
   void addRow(FxRobot robot) {
-    apiBus.emulIn(new ApiResponse.QuizList(TestData.list));
+    apiBus.emulIn(wholeList);
     val list = robot.lookup("#list").queryTableView();
     assertThat(list).hasExactlyNumRows(4);
     apiBus.emulIn(new ApiResponse.QuizAdded(TestData.newQuiz));
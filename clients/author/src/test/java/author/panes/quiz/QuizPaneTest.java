@@ -104,6 +104,24 @@ class QuizPaneTest {
       TestData.section1, TestData.section2, TestData.section3);
   } 
 
+  @Test @DisplayName("loads section items before preview")
+  void previewLoadsSections(FxRobot robot) {
+    putQuizForUser(TestData.fullQuiz1, TestData.author1);
+    robot.clickOn("#preview");
+    val requested = Stream.generate(apiBus::poll).limit(3).collect(Collectors.toSet());
+    assertThat(requested).containsExactlyInAnyOrder(
+      new ApiRequest.LoadSection("q1", "q1-1"),
+      new ApiRequest.LoadSection("q1", "q1-2"),
+      new ApiRequest.LoadSection("q1", "q1-3"));
+    apiBus.emulIn(new ApiResponse.SectionLoaded("q1", TestData.section1));
+    apiBus.emulIn(new ApiResponse.SectionLoaded("q1", TestData.section2));
+    assertThat(uiBus.poll()).isNull();
+    apiBus.emulIn(new ApiResponse.SectionLoaded("q1", TestData.section3));
+    assertThat(uiBus.poll()).isEqualTo(new MainUIMessage.PreviewQuiz("q1"));
+    robot.clickOn("#preview");
+    assertThat(uiBus.poll()).isEqualTo(new MainUIMessage.PreviewQuiz("q1"));
+  }
+
   @Test @DisplayName("sends edit section request on link click")
   void editClick(FxRobot robot) {
     putQuizForUser(TestData.fullQuiz1, TestData.author1);
@@ -137,6 +155,27 @@ class QuizPaneTest {
     assertThat(robot.lookup("#sections").queryTableView().getItems().get(1)).isEqualTo(TestData.section1);
   }
 
+  @Test @DisplayName("ignores events pushed before a quiz is shown")
+  void pushedBeforeQuiz(FxRobot robot) {
+    apiBus.emulIn(new ApiResponse.SectionMoved("q1", List.of("q1-2", "q1-1", "q1-3")));
+    apiBus.emulIn(new ApiResponse.ReadySet("q1", TestData.author1.id()));
+    putQuizForUser(TestData.fullQuiz1, TestData.author1);
+    apiBus.emulIn(new ApiResponse.SectionMoved("q1", List.of("q1-2", "q1-1", "q1-3")));
+    assertThat(robot.lookup("#sections").queryTableView().getItems().get(1)).isEqualTo(TestData.section1);
+  }
+
+  @Test @DisplayName("rolls back own move after moves of others were pushed")
+  void rollbackAfterPush(FxRobot robot) {
+    putQuizForUser(TestData.fullQuiz1, TestData.author1);
+    val go = robot.from(robot.lookup("section 3 title").query().getParent()).lookup(".section-up").query();
+    robot.clickOn(go);
+    assertThat(apiBus.poll()).isEqualTo(new ApiRequest.MoveSection("q1", "q1-3", true));
+    apiBus.emulIn(new ApiResponse.SectionMoved("q1", List.of("q1-1", "q1-3", "q1-2")));
+    apiBus.emulIn(new ApiResponse.RequestFailed(new ApiRequest.MoveSection("q1", "q1-3", true)));
+    assertThat(robot.lookup("#sections").queryTableView().getItems())
+      .containsExactlyElementsOf(TestData.fullQuiz1.sections());
+  }
+
   @Test @DisplayName("reacts on section remove")
   void onSectionRemoved(FxRobot robot) {
     putQuizForUser(TestData.fullQuiz1, TestData.author1);
@@ -279,6 +318,22 @@ class QuizPaneTest {
       .withDisapprovals(disapprovals));
   }
 
+  @Test @DisplayName("leaves other labels and sections alone on approve")
+  void approveIncremental(FxRobot robot) {
+    putQuizForUser(TestData.fullQuiz1, TestData.inspector2);
+    val readiness = List.copyOf(robot.lookup("#readiness").queryAs(VBox.class).getChildren());
+    val kept = robot.lookup("#approvals").queryAs(VBox.class).getChildren().stream()
+      .filter(l -> !((Labeled) l).getText().equals(TestData.inspector2.name()))
+      .collect(Collectors.toList());
+    val sections = robot.lookup("#sections").<OutSection>queryTableView().getItems();
+    val changes = new ArrayList<Object>();
+    sections.addListener((javafx.collections.ListChangeListener<OutSection>) changes::add);
+    apiBus.emulIn(new ApiResponse.Approved("q1", TestData.inspector2.id()));
+    assertThat(robot.lookup("#readiness").queryAs(VBox.class).getChildren()).containsExactlyElementsOf(readiness);
+    assertThat(robot.lookup("#approvals").queryAs(VBox.class).getChildren()).containsAll(kept);
+    assertThat(changes).isEmpty();
+  }
+
   @Test @DisplayName("updates approvals on disapprove")
   void disapprove(FxRobot robot) {
     putQuizForUser(TestData.fullQuiz1, TestData.inspector1);
@@ -52,7 +52,7 @@ class QuizzesTest {
 
   @Test @DisplayName("displays quiz list and shows quiz in form")
   void displayQuiz(FxRobot robot) {
-    apiBus.emulIn(new ApiResponse.QuizList(TestData.list));
+    apiBus.emulIn(new ApiResponse.QuizPage(ApiRequest.ListQuery.FIRST, null, TestData.list, null));
     robot.clickOn(robot.lookup("#mainList").lookup(LabeledMatchers.hasText("q2")).queryLabeled());
     assertThat(robot.lookup("#form").lookup("#status").queryLabeled()).hasText("Review");
   }
@@ -61,9 +61,8 @@ class SectionPaneTest {
     putTestSection();
     assertThat(robot.lookup("#title").queryTextInputControl()).hasText("section 1 title");
     assertThat(robot.lookup("#intro").queryTextInputControl()).hasText("section 1 intro");
-    assertThat(robot.lookup("#itemsBox").queryParent()).hasExactlyNumChildren(3);
-    assertThat(robot.lookup(".item").nth(0).lookup("#definition").queryTextInputControl())
-      .hasText("item 1 definition");
+    assertThat(robot.lookup("#itemsBox").queryListView()).hasExactlyNumItems(3);
+    assertThat(itemDefinition(0, robot)).hasText("item 1 definition");
   }
 
   @Test @DisplayName("sends correct request on save click")
@@ -90,8 +89,8 @@ class SectionPaneTest {
   void addItemResponse(FxRobot robot) {
     putTestSection();
     apiBus.emulIn(new ApiResponse.ItemAdded("q1-1", "q1-1-4"));
-    assertThat(robot.lookup("#itemsBox").queryParent()).hasExactlyNumChildren(4);
-    assertThat(robot.lookup(".item").nth(3).lookup("#definition").queryTextInputControl()).hasText("");
+    assertThat(robot.lookup("#itemsBox").queryListView()).hasExactlyNumItems(4);
+    assertThat(itemDefinition(3, robot)).hasText("");
   }
 
   @Test @DisplayName("sends discharge request")
@@ -104,17 +103,23 @@ class SectionPaneTest {
   @Test @DisplayName("reacts on item removal response")
   void removeItem(FxRobot robot) {
     putTestSection();
-    assertThat(robot.lookup("#itemsBox").queryParent()).hasExactlyNumChildren(3);
+    assertThat(robot.lookup("#itemsBox").queryListView()).hasExactlyNumItems(3);
     apiBus.emulIn(new ApiResponse.ItemRemoved("q2-1", "2"));
-    assertThat(robot.lookup("#itemsBox").queryParent()).hasExactlyNumChildren(3);
+    assertThat(robot.lookup("#itemsBox").queryListView()).hasExactlyNumItems(3);
     apiBus.emulIn(new ApiResponse.ItemRemoved("q1-1", "2"));
-    assertThat(robot.lookup("#itemsBox").queryParent()).hasExactlyNumChildren(2);
+    assertThat(robot.lookup("#itemsBox").queryListView()).hasExactlyNumItems(2);
     assertThat(itemDefinition(0, robot)).hasText("item 1 definition");
     assertThat(itemDefinition(1, robot)).hasText("item 3 definition");
   }
 
+  Node item(int itemIndex, FxRobot robot) {
+    return robot.lookup(".items .list-cell")
+      .match((ListCell<?> c) -> c.getIndex() == itemIndex && !c.isEmpty())
+      .lookup(".item").query();
+  }
+
   TextInputControl itemDefinition(int itemIndex, FxRobot robot) {
-    return robot.lookup(".item").nth(itemIndex).lookup("#definition").queryTextInputControl();
+    return robot.from(item(itemIndex, robot)).lookup("#definition").queryTextInputControl();
   }
 
   @Test @DisplayName("reacts on item move")
@@ -126,4 +131,38 @@ class SectionPaneTest {
     assertThat(itemDefinition(2, robot)).hasText("item 3 definition");
   }
 
+  @Test @DisplayName("moves item before the response and rolls back on failure")
+  void itemMoveRollback(FxRobot robot) throws Exception {
+    putTestSection();
+    robot.clickOn(robot.from(item(1, robot))
+      .lookup((Node n) -> n instanceof Button && "Move up".equals(((Button) n).getText()))
+      .queryAs(Button.class));
+    assertThat(apiBus.poll()).isEqualTo(new ApiRequest.MoveItem("q1-1", "2", true));
+    assertThat(itemDefinition(0, robot)).hasText("item 2 definition");
+    assertThat(itemDefinition(1, robot)).hasText("item 1 definition");
+    apiBus.emulIn(new ApiResponse.RequestFailed(new ApiRequest.MoveItem("q1-1", "2", true)));
+    assertThat(itemDefinition(0, robot)).hasText("item 1 definition");
+    assertThat(itemDefinition(1, robot)).hasText("item 2 definition");
+    assertThat(itemDefinition(2, robot)).hasText("item 3 definition");
+  }
+
+  @Test @DisplayName("materializes visible items only and keeps edits of the others")
+  void virtualized(FxRobot robot) {
+    val items = IntStream.rangeClosed(1, 200)
+      .mapToObj(i -> new OutItem(String.valueOf(i), "", new OutStatement("item " + i + " definition", null),
+        List.of(), false, List.of()))
+      .collect(Collectors.toList());
+    apiBus.emulIn(new ApiResponse.SectionOwned("q1", new OutSection("q1-1", "big", "", items)));
+    assertThat(robot.lookup(".item").queryAll().size()).isLessThan(30);
+    robot.clickOn(itemDefinition(0, robot)).write(" edited");
+    val list = robot.lookup("#itemsBox").<String>queryListView();
+    asyncFx(() -> list.scrollTo(199));
+    waitForFxEvents();
+    assertThat(itemDefinition(199, robot)).hasText("item 200 definition");
+    asyncFx(() -> list.scrollTo(0));
+    waitForFxEvents();
+    assertThat(itemDefinition(0, robot)).hasText("item 1 definition edited");
+    assertThat(robot.lookup(".item").queryAll().size()).isLessThan(30);
+  }
+
 }
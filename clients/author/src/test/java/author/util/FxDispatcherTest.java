@@ -0,0 +1,54 @@
+package author.util;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+import lombok.val;
+
+@DisplayName("FX dispatcher")
+class FxDispatcherTest {
+
+  final FxMonitor monitor = new FxMonitor(Duration.ofSeconds(1));
+  final List<String> order = new ArrayList<>();
+  // stands for the FX event queue
+  final Deque<Runnable> fx = new ArrayDeque<>();
+
+  void run(FxDispatcher sut) {
+    sut.dispatch(() -> order.add("1"));
+    sut.dispatch(() -> order.add("2"));
+    fx.add(() -> order.add("other"));
+    while (!fx.isEmpty())
+      fx.poll().run();
+  }
+
+  @Test @DisplayName("runs pending tasks in one batch")
+  void batch() {
+    run(new FxDispatcher(Duration.ofSeconds(1), monitor, fx::add));
+    assertThat(order).containsExactly("1", "2", "other");
+    assertThat(monitor.snapshot()).filteredOn(r -> r.event().equals("queue delay"))
+      .singleElement().extracting(FxMonitor.Row::count).isEqualTo(2L);
+    assertThat(monitor.snapshot()).filteredOn(r -> r.event().equals("batch"))
+      .singleElement().extracting(FxMonitor.Row::count).isEqualTo(1L);
+  }
+
+  @Test @DisplayName("leaves tasks over the budget to the next batch")
+  void budget() {
+    run(new FxDispatcher(Duration.ofNanos(1), monitor, fx::add));
+    assertThat(order).containsExactly("1", "other", "2");
+  }
+
+  @Test @DisplayName("goes on with the next batch after a failed task")
+  void failure() {
+    val sut = new FxDispatcher(Duration.ZERO, monitor, fx::add);
+    sut.dispatch(() -> { throw new IllegalStateException(); });
+    sut.dispatch(() -> order.add("2"));
+    assertThatThrownBy(() -> fx.poll().run()).isInstanceOf(IllegalStateException.class);
+    fx.poll().run();
+    assertThat(order).containsExactly("2");
+  }
+
+}
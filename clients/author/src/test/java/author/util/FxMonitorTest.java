@@ -0,0 +1,61 @@
+package author.util;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import javafx.application.Platform;
+
+import static org.assertj.core.api.Assertions.*;
+
+import lombok.val;
+
+@DisplayName("FX monitor")
+class FxMonitorTest {
+
+  // the toolkit is left running for the test classes after this one
+  @BeforeAll
+  static void before() {
+    try {
+      Platform.startup(() -> {});
+    } catch (IllegalStateException ignore) {}
+  }
+
+  FxMonitor sut = new FxMonitor(Duration.ofMillis(20));
+
+  @Test @DisplayName("counts stalls and lists the slowest first")
+  void record() {
+    sut.record("ListPane", "QuizPage", TimeUnit.MILLISECONDS.toNanos(5));
+    sut.record("QuizPane", "Approved", TimeUnit.MILLISECONDS.toNanos(30));
+    sut.record("QuizPane", "Approved", TimeUnit.MILLISECONDS.toNanos(1));
+    assertThat(sut.getStallCount()).isEqualTo(1);
+    assertThat(sut.snapshot()).extracting(FxMonitor.Row::owner, FxMonitor.Row::count)
+      .containsExactly(tuple("QuizPane", 2L), tuple("ListPane", 1L));
+    assertThat(sut.getSlowest()[0]).startsWith("QuizPane Approved count=2 stalls=1");
+    sut.reset();
+    assertThat(sut.snapshot()).isEmpty();
+  }
+
+  @Test @DisplayName("times subscribers by owner and message, only for messages reaching them")
+  void timed() throws Exception {
+    val bus = new PipeBus<Object>();
+    val done = new CountDownLatch(1);
+    bus.in().ofType(String.class).compose(sut.timed("MainPane")).subscribe(m -> {
+      Thread.sleep(25);
+      done.countDown();
+    });
+    bus.in().ofType(Integer.class).compose(sut.timed("MainPane")).subscribe(m -> {});
+    bus.out().accept(1);
+    bus.out().accept("message");
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    val synced = new CountDownLatch(1);
+    Platform.runLater(synced::countDown);
+    assertThat(synced.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(sut.snapshot()).extracting(FxMonitor.Row::owner, FxMonitor.Row::event,
+      FxMonitor.Row::count, FxMonitor.Row::stalls)
+      .containsExactlyInAnyOrder(tuple("MainPane", "String", 1L, 1L), tuple("MainPane", "Integer", 1L, 0L));
+  }
+
+}
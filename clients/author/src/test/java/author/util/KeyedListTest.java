@@ -0,0 +1,103 @@
+package author.util;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import javafx.collections.ListChangeListener;
+
+import static org.assertj.core.api.Assertions.*;
+
+import author.dtos.*;
+
+import lombok.val;
+
+@DisplayName("Keyed list")
+class KeyedListTest {
+
+  KeyedList<String, OutPerson> sut = new KeyedList<>(OutPerson::id);
+  List<String> changes = new ArrayList<>();
+
+  static OutPerson p(String id) {
+    return new OutPerson(id + " name", id);
+  }
+
+  @BeforeEach
+  void setUp() {
+    sut.setAll(List.of(p("a"), p("b"), p("c"), p("d")));
+    sut.items().addListener((ListChangeListener<OutPerson>) c -> {
+      while (c.next())
+        changes.add(c.getFrom() + ":" + c.getRemovedSize() + ":" + c.getAddedSize());
+    });
+  }
+
+  @Test @DisplayName("looks values up by key")
+  void get() {
+    assertThat(sut.get("c")).isEqualTo(p("c"));
+    assertThat(sut.indexOf("c")).isEqualTo(2);
+    assertThat(sut.get("x")).isNull();
+    assertThat(sut.indexOf("x")).isEqualTo(-1);
+  }
+
+  @Test @DisplayName("replaces only changed values in place")
+  void update() {
+    sut.update("b", v -> new OutPerson("renamed", "b"));
+    sut.update("c", v -> v);
+    sut.update("x", v -> new OutPerson("renamed", "x"));
+    sut.put(p("d"));
+    assertThat(sut.get("b").name()).isEqualTo("renamed");
+    assertThat(changes).containsExactly("1:1:1");
+  }
+
+  @Test @DisplayName("appends values with new keys")
+  void put() {
+    sut.put(p("e"));
+    sut.addAll(List.of(p("f"), p("g")));
+    assertThat(sut.items()).extracting(OutPerson::id).containsExactly("a", "b", "c", "d", "e", "f", "g");
+    assertThat(sut.indexOf("g")).isEqualTo(6);
+    assertThat(changes).containsExactly("4:0:1", "5:0:2");
+  }
+
+  @Test @DisplayName("reindexes after removal")
+  void remove() {
+    sut.remove("b");
+    assertThat(sut.items()).extracting(OutPerson::id).containsExactly("a", "c", "d");
+    assertThat(sut.indexOf("d")).isEqualTo(2);
+    assertThat(sut.get("b")).isNull();
+  }
+
+  @Test @DisplayName("reindexes after insertion")
+  void add() {
+    sut.add(1, p("x"));
+    assertThat(sut.items()).extracting(OutPerson::id).containsExactly("a", "x", "b", "c", "d");
+    assertThat(sut.indexOf("x")).isEqualTo(1);
+    assertThat(sut.indexOf("d")).isEqualTo(4);
+    assertThat(changes).containsExactly("1:0:1");
+  }
+
+  @Test @DisplayName("patches kept head and tail, replaces the middle")
+  void setAll() {
+    sut.setAll(List.of(p("a"), new OutPerson("renamed", "b"), p("x"), p("d")));
+    assertThat(sut.items()).extracting(OutPerson::id).containsExactly("a", "b", "x", "d");
+    assertThat(sut.indexOf("x")).isEqualTo(2);
+    assertThat(sut.get("c")).isNull();
+    assertThat(changes).containsExactly("1:1:1", "2:1:0", "2:0:1");
+  }
+
+  @Test @DisplayName("fires nothing for the same content")
+  void setSame() {
+    sut.setAll(List.of(p("a"), p("b"), p("c"), p("d")));
+    assertThat(changes).isEmpty();
+  }
+
+  @Test @DisplayName("inserts and removes inside")
+  void insertRemove() {
+    sut.setAll(List.of(p("a"), p("b"), p("y"), p("c"), p("d")));
+    assertThat(changes).containsExactly("2:0:1");
+    sut.setAll(List.of(p("a"), p("d")));
+    assertThat(sut.items()).extracting(OutPerson::id).containsExactly("a", "d");
+    assertThat(sut.indexOf("d")).isEqualTo(1);
+    assertThat(sut.get("y")).isNull();
+  }
+
+}
@@ -0,0 +1,47 @@
+package author.util;
+
+import org.junit.jupiter.api.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+import author.requests.ApiRequest;
+
+@DisplayName("Pending edits")
+class PendingEditsTest {
+
+  PendingEdits<String> sut = new PendingEdits<>();
+
+  ApiRequest moveUp = new ApiRequest.MoveSection("q1", "q1-2", true);
+  ApiRequest moveDown = new ApiRequest.MoveSection("q1", "q1-2", false);
+  ApiRequest remove = new ApiRequest.RemoveSection("q1-3", "q1");
+
+  @Test @DisplayName("drops only the confirmed edit")
+  void confirm() {
+    sut.add(moveUp, "abc");
+    sut.add(remove, "bac");
+    sut.confirm(remove);
+    sut.confirm(moveDown);
+    assertThat(sut.size()).isEqualTo(1);
+    assertThat(sut.fail(moveUp)).isEqualTo("abc");
+  }
+
+  @Test @DisplayName("returns the state before the failed edit and drops the later ones")
+  void fail() {
+    sut.add(moveUp, "abc");
+    sut.add(remove, "bac");
+    sut.add(moveDown, "ba");
+    assertThat(sut.fail(remove)).isEqualTo("bac");
+    assertThat(sut.size()).isEqualTo(1);
+    assertThat(sut.fail(remove)).isNull();
+  }
+
+  @Test @DisplayName("settles equal requests oldest first")
+  void equalRequests() {
+    sut.add(moveUp, "abc");
+    sut.add(moveUp, "bac");
+    sut.confirm(moveUp);
+    assertThat(sut.fail(moveUp)).isEqualTo("bac");
+    assertThat(sut.size()).isZero();
+  }
+
+}
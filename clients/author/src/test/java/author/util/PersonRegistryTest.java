@@ -0,0 +1,67 @@
+package author.util;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+import author.dtos.*;
+
+import lombok.val;
+
+@DisplayName("Person registry")
+class PersonRegistryTest {
+
+  PersonRegistry sut = new PersonRegistry(2);
+
+  @Test @DisplayName("returns the first instance of equal persons")
+  void intern() {
+    val first = new OutPerson("name", "p1");
+    assertThat(sut.intern(first)).isSameAs(first);
+    assertThat(sut.intern(new OutPerson("name", "p1"))).isSameAs(first);
+    assertThat(sut.intern(null)).isNull();
+  }
+
+  @Test @DisplayName("shares immutable member sets of interned persons")
+  void members() {
+    val p1 = sut.intern(new OutPerson("name1", "p1"));
+    val set = sut.members(List.of(new OutPerson("name1", "p1"), new OutPerson("name2", "p2")));
+    assertThat(set).containsExactlyInAnyOrder(p1, new OutPerson("name2", "p2"));
+    assertThat(set.stream().filter(p -> p.id().equals("p1")).findAny()).containsSame(p1);
+    assertThat(sut.members(new HashSet<>(set))).isSameAs(set);
+    assertThatThrownBy(() -> set.add(new OutPerson("name3", "p3")))
+      .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test @DisplayName("adds and removes members")
+  void withWithout() {
+    val p1 = new OutPerson("name1", "p1");
+    val p2 = new OutPerson("name2", "p2");
+    val one = sut.members(List.of(p1));
+    val two = sut.with(one, p2);
+    assertThat(two).containsExactlyInAnyOrder(p1, p2);
+    assertThat(sut.with(two, p2)).isSameAs(two);
+    assertThat(sut.without(two, p2)).isSameAs(one);
+  }
+
+  @Test @DisplayName("stops sharing new sets when full")
+  void bounded() {
+    val a = sut.members(List.of(new OutPerson("a", "a")));
+    sut.members(List.of(new OutPerson("b", "b")));
+    val c = sut.members(List.of(new OutPerson("c", "c")));
+    assertThat(sut.members(List.of(new OutPerson("a", "a")))).isSameAs(a);
+    assertThat(sut.members(List.of(new OutPerson("c", "c")))).isEqualTo(c).isNotSameAs(c);
+  }
+
+  @Test @DisplayName("forgets everything when cleared")
+  void clear() {
+    val first = sut.intern(new OutPerson("name", "p1"));
+    val set = sut.members(List.of(first));
+    sut.clear();
+    val second = new OutPerson("name", "p1");
+    assertThat(sut.intern(second)).isSameAs(second);
+    assertThat(sut.members(List.of(second))).isEqualTo(set).isNotSameAs(set);
+  }
+
+}
@@ -0,0 +1,64 @@
+package author.util;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.function.Function;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+
+import static org.assertj.core.api.Assertions.*;
+
+import lombok.val;
+
+@DisplayName("Keyed reorder")
+class ReorderTest {
+
+  List<String> changes = new ArrayList<>();
+
+  List<String> list(String... values) {
+    val list = FXCollections.observableArrayList(values);
+    list.addListener((ListChangeListener<String>) c -> {
+      while (c.next())
+        changes.add((c.wasRemoved() ? "-" : "+") + c.getFrom());
+    });
+    return list;
+  }
+
+  @Test @DisplayName("moves only the displaced element")
+  void moveOne() {
+    val list = list("a", "b", "c", "d", "e");
+    Reorder.byKeys(list, List.of("b", "c", "d", "e", "a"), Function.identity());
+    assertThat(list).containsExactly("b", "c", "d", "e", "a");
+    assertThat(changes).containsExactly("-0", "+4");
+  }
+
+  @Test @DisplayName("leaves the list alone when in order")
+  void inOrder() {
+    val list = list("a", "b", "c");
+    Reorder.byKeys(list, List.of("a", "b", "c"), Function.identity());
+    assertThat(changes).isEmpty();
+  }
+
+  @Test @DisplayName("drops unlisted elements and skips unknown keys")
+  void dropAndSkip() {
+    val list = list("a", "b", "c", "d");
+    Reorder.byKeys(list, List.of("d", "x", "c", "a"), Function.identity());
+    assertThat(list).containsExactly("d", "c", "a");
+  }
+
+  @Test @DisplayName("reverses")
+  void reverse() {
+    val list = list("a", "b", "c", "d");
+    Reorder.byKeys(list, List.of("d", "c", "b", "a"), Function.identity());
+    assertThat(list).containsExactly("d", "c", "b", "a");
+  }
+
+  @Test @DisplayName("finds a longest increasing run")
+  void increasing() {
+    assertThat(Reorder.increasing(new int[] {3, 0, 1, 4, 2, 5})).containsExactly(1, 2, 4, 5);
+    assertThat(Reorder.increasing(new int[] {})).isEmpty();
+  }
+
+}